@@ -0,0 +1,15 @@
+// O desenho agora é feito pelo TreeRenderer, em tempo linear e sem montar as linhas de cada subárvore
+
+class AVLFormatter {
+
+    int padding = 2; // mínimo de espaços horizontais entre dois dados de nó
+
+    public String topDown(AVLTree.Node root) {
+        return new TreeRenderer<>(NodeAccessor.AVL, padding).toString(root);
+    }
+
+    // Desenha só até maxDepth níveis abaixo da raiz informada
+    public String topDown(AVLTree.Node root, int maxDepth) {
+        return new TreeRenderer<>(NodeAccessor.AVL, padding).toString(root, maxDepth);
+    }
+}
\ No newline at end of file
@@ -1,44 +1,285 @@
 // Imports
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Scanner;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+import java.util.zip.CRC32;
+
+public class AVLTree implements IntOrderedSet {
+    // a partir deste tamanho o addAll ordena a entrada com Arrays.parallelSort
+    private static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+    // o addAll só reconstrói a árvore se a entrada tiver pelo menos 1/BULK_RATIO do tamanho atual
+    private static final int BULK_RATIO = 8;
+    // a partir deste tamanho o treeInfo calcula as estatísticas em paralelo
+    private static final int PARALLEL_STATS_THRESHOLD = 1 << 20;
+
+    // union/intersection/difference dividem em tarefas fork/join quando as duas subárvores somam mais que isso
+    private static final int PARALLEL_SET_THRESHOLD = 1 << 13;
+
+    // altura máxima de uma AVL com até 2^31 elementos é 45, então 64 posições sempre bastam
+    private static final int MAX_HEIGHT = 64;
+
+    // formato do arquivo do save/load: cabeçalho (magic, versão, quantidade, CRC32 dos registros)
+    // seguido de um registro (elemento int, altura byte) por nó em pré-ordem
+    private static final int FILE_MAGIC = 0x41564C54; // "AVLT"
+    private static final int FILE_VERSION = 1;
+    private static final int FILE_HEADER_SIZE = 16;
+    private static final int FILE_RECORD_SIZE = 5;
+    private static final int FILE_BUFFER_SIZE = 1 << 16;
+
+    // gerador das versões (épocas) de todas as árvores, para que nunca duas compartilhem o mesmo número
+    private static final AtomicInteger EPOCHS = new AtomicInteger();
 
-public class AVLTree {
     private Node root;
     private AVLFormatter formatter;
+    // caminho da raiz até o nó sendo inserido/removido, reaproveitado entre as operações
+    private final Node[] path = new Node[MAX_HEIGHT];
+    // finger: path[0, fingerDepth) é o caminho até o último nó inserido/removido, e a subárvore de path[i] só tem
+    // valores no intervalo aberto (low[i], high[i]); a próxima busca começa no nó mais fundo cujo
+    // intervalo contém o valor, então valores próximos do anterior não descem desde a raiz
+    private final long[] low = new long[MAX_HEIGHT];
+    private final long[] high = new long[MAX_HEIGHT];
+    private int fingerDepth;
+    private boolean fingerSearch = true;
+    // quantidade de operações de escrita, para os cursores saberem que o caminho guardado deixou de valer
+    private int modCount;
+    // só nós desta época podem ser alterados no lugar; os outros pertencem a algum snapshot
+    private int epoch = EPOCHS.incrementAndGet();
+    // snapshots não aceitam alterações
+    private boolean readOnly;
 
     public AVLTree() {
         root = null;
         formatter = new AVLFormatter();
     }
 
-    /** Adicionar elementos na árvore */
-    public void add(int value) {
-        Node node = new Node(value);
-        root = addAVL(root, node);
+    /** Adicionar elementos na árvore (retorna false se o valor já existia) */
+    @Override
+    public boolean add(int value) {
+        checkWritable();
+        if (root == null) {
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.AVL.search(0, 0);
+            root = newNode(value);
+            return true;
+        }
+
+        // desce guardando o caminho até o ponto de inserção
+        int depth = descend(value);
+        Node parent = path[depth - 1];
+        if (parent.element == value)
+            // se o valor já existir, não faz nada
+            return false;
+
+        // copia os nós do caminho que estão congelados em algum snapshot antes de alterar
+        makePathMutable(depth);
+        parent = path[depth - 1];
+
+        // o novo nó entra no finger, com o intervalo que herda do pai
+        Node node = newNode(value);
+        path[depth] = node;
+        if (value < parent.element) {
+            parent.left = node;
+            low[depth] = low[depth - 1];
+            high[depth] = parent.element;
+        } else {
+            parent.right = node;
+            low[depth] = parent.element;
+            high[depth] = high[depth - 1];
+        }
+        fingerDepth = depth + 1;
+
+        // todos os ancestrais ganharam um nó
+        for (int i = 0; i < depth; i++)
+            path[i].size++;
+
+        // sobe atualizando alturas e balanceando; abaixo de uma rotação o finger deixa de valer
+        fingerDepth = Math.min(fingerDepth, retrace(depth) + 1);
+        return true;
+    }
+
+    /*
+     * Busca com finger: sobe pelo último caminho (path[0, fingerDepth)) até o nó mais fundo cuja
+     * subárvore pode conter o valor e desce dali, deixando em path[0, depth) o caminho da raiz até o nó
+     * com o valor ou até o pai de onde ele entraria (depth = 0 só com a árvore vazia).
+     *
+     * Para valores a uma distância d (em posições) do anterior, como em fluxos ordenados ou quase
+     * ordenados, o ancestral comum costuma estar O(log d) níveis acima, e a busca custa O(log d) em vez
+     * de O(log n). No pior caso (valores vizinhos em lados opostos da raiz) volta a ser O(log n).
+     */
+    private int descend(int value) {
+        fingerDepth = descend(root, path, low, high, fingerSearch ? fingerDepth : 0, value);
+        return fingerDepth;
     }
 
-    // Método auxiliar pro add
-    private Node addAVL(Node current, Node node) {
-        if (current == null)
-            // Se encontrar um nó nulo, adiciona o novo nó nele
+    // A busca com finger sobre um caminho qualquer (o da árvore ou o de um Cursor); retorna o novo depth
+    private static int descend(Node root, Node[] path, long[] low, long[] high, int fingerDepth, int value) {
+        int depth = fingerDepth;
+        while (depth > 0 && (value <= low[depth - 1] || value >= high[depth - 1]))
+            depth--;
+
+        Node current = root;
+        long lo = Long.MIN_VALUE;
+        long hi = Long.MAX_VALUE;
+        if (depth > 0) {
+            // o último nó que ainda contém o valor é refeito pelo laço abaixo
+            depth--;
+            current = path[depth];
+            lo = low[depth];
+            hi = high[depth];
+        }
+
+        int start = depth;
+        int comparisons = 0;
+        while (current != null) {
+            path[depth] = current;
+            low[depth] = lo;
+            high[depth] = hi;
+            depth++;
+
+            if (value < current.element) {
+                // se o valor for menor, vai para a esquerda
+                comparisons++;
+                hi = current.element;
+                current = current.left;
+            }
+
+            else if (value > current.element) {
+                // se o valor é maior, vai para a direita
+                comparisons += 2;
+                lo = current.element;
+                current = current.right;
+            }
+
+            else {
+                comparisons += 2;
+                break;
+            }
+        }
+        if (TreeMetrics.ENABLED)
+            TreeMetrics.AVL.search(depth - start, comparisons);
+        return depth;
+    }
+
+    /** Ligar ou desligar a busca com finger (ligada por padrão), para comparar o custo das duas */
+    public void setFingerSearch(boolean enabled) {
+        fingerSearch = enabled;
+        fingerDepth = 0;
+    }
+
+    // Sobe pelo caminho path[0, depth) atualizando a altura e balanceando cada nó.
+    // Para assim que a altura de uma subárvore não muda, pois os ancestrais não são afetados.
+    // Retorna o menor índice em que houve rotação (path[i] passa a ser a nova raiz da subárvore), ou depth.
+    private int retrace(int depth) {
+        int rotated = depth;
+        for (int i = depth - 1; i >= 0; i--) {
+            Node node = path[i];
+            int oldHeight = node.height;
+
+            updateHeight(node);
+            Node balanced = balance(node);
+            if (balanced != node) {
+                // a rotação trocou a raiz da subárvore, então o pai precisa apontar para a nova
+                replaceChild(i == 0 ? null : path[i - 1], node, balanced);
+                path[i] = balanced;
+                rotated = i;
+            }
+
+            if (balanced.height == oldHeight)
+                break;
+        }
+        return rotated;
+    }
+
+    // Garante que os nós de path[0, depth) podem ser alterados, trocando os congelados por cópias
+    private void makePathMutable(int depth) {
+        for (int i = 0; i < depth; i++) {
+            Node node = path[i];
+            Node copy = mutable(node);
+            if (copy != node) {
+                // o pai já é mutável, então só precisa apontar para a cópia
+                replaceChild(i == 0 ? null : path[i - 1], node, copy);
+                path[i] = copy;
+            }
+        }
+    }
+
+    // Retorna o próprio nó se ele é desta época, senão uma cópia dele (o original fica com o snapshot)
+    private Node mutable(Node node) {
+        if (node.epoch == epoch)
             return node;
 
-        if (node.element < current.element)
-            // se o valor for menor, adiciona a esquerda
-            current.left = addAVL(current.left, node);
+        Node copy = new Node(node.element, node.left, node.right);
+        copy.height = node.height;
+        copy.size = node.size;
+        copy.epoch = epoch;
+        return copy;
+    }
 
-        else if (node.element > current.element)
-            // se o valor é maior, adiciona a direita
-            current.right = addAVL(current.right, node);
+    private Node newNode(int value) {
+        Node node = new Node(value);
+        node.epoch = epoch;
+        return node;
+    }
 
-        else
-            // se o valor já existir, ele retorna o atual
-            return current;
+    // Chamado no começo de toda alteração
+    private void checkWritable() {
+        if (readOnly)
+            throw new UnsupportedOperationException("Snapshot da árvore AVL é somente leitura");
+        modCount++;
+    }
 
-        // atualizando a altura do nó atual
-        updateHeight(current);
-        // balanceando a arvore após adicionar o nodo
-        return balance(current);
+    /**
+     * Retornar uma versão imutável da árvore em O(1).
+     * Depois do snapshot, as alterações nesta árvore copiam apenas os nós do caminho alterado
+     * (O(log n) por operação) e o snapshot continua vendo os elementos da hora em que foi tirado.
+     * Para ler o snapshot em outra thread, ele precisa ser publicado de forma segura (volatile, fila etc.).
+     */
+    public AVLTree snapshot() {
+        AVLTree snapshot = new AVLTree();
+        snapshot.root = root;
+        snapshot.readOnly = true;
+        freeze();
+        return snapshot;
+    }
+
+    // Congela todos os nós atuais: daqui pra frente eles só são alterados através de cópias
+    private void freeze() {
+        epoch = EPOCHS.incrementAndGet();
+    }
+
+    /** Verificar se a árvore é um snapshot somente leitura */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    // Troca o filho old do pai pelo replacement (pai nulo == raiz da árvore)
+    private void replaceChild(Node parent, Node old, Node replacement) {
+        if (parent == null)
+            root = replacement;
+        else if (parent.left == old)
+            parent.left = replacement;
+        else
+            parent.right = replacement;
     }
 
     /** Retornar o pai de um elemento */
@@ -68,41 +309,90 @@ public class AVLTree {
     }
 
     /** Limpar o conteúdo da árvore */
+    @Override
     public void clear() {
+        checkWritable();
         root = null;
+        // solta as referências da árvore antiga guardadas no caminho
+        Arrays.fill(path, null);
+        fingerDepth = 0;
     }
 
     /** Verificar se um elemento está armazenado na árvore ou não */
+    @Override
     public boolean contains(int value) {
-        return containsNode(root, value);
+        // desce da raiz sem usar o finger da árvore: ele é escrito a cada busca, e várias threads só lendo
+        // a mesma árvore (sem nenhuma alterando) precisam continuar seguras; para buscas em sequência com
+        // finger, cada thread usa o seu cursor()
+        return containsNode(root, value, 0);
+    }
+
+    /**
+     * Retornar um cursor de leitura com finger próprio: buscas por valores próximos do anterior custam
+     * O(log d) em vez de O(log n), como no add/remove. O caminho fica no cursor, então cada thread pode
+     * ler a árvore com o seu (sem nenhuma alterando). Depois de uma alteração na árvore o cursor volta a
+     * descer desde a raiz.
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /** Finger de leitura de quem chama (ver cursor()); não deve ser compartilhado entre threads */
+    public final class Cursor {
+        private final Node[] path = new Node[MAX_HEIGHT];
+        private final long[] low = new long[MAX_HEIGHT];
+        private final long[] high = new long[MAX_HEIGHT];
+        private int depth;
+        // modCount da árvore quando o caminho foi guardado
+        private int modifications = modCount;
+
+        private Cursor() {
+        }
+
+        /** Verificar se um elemento está na árvore, começando pelo caminho da busca anterior */
+        public boolean contains(int value) {
+            if (modifications != modCount) {
+                modifications = modCount;
+                depth = 0;
+            }
+            depth = descend(root, path, low, high, depth, value);
+            return depth > 0 && path[depth - 1].element == value;
+        }
     }
 
-    // Método auxiliar do contains
-    private boolean containsNode(Node current, int value) {
-        if (current == null)
+    // Método auxiliar do contains; depth = nós já visitados acima do atual (para o TreeMetrics)
+    private boolean containsNode(Node current, int value, int depth) {
+        if (current == null) {
             // nó nulo == valor não está na arvore
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.AVL.search(depth, 2 * depth);
             return false;
+        }
 
-        if (value == current.element)
+        if (value == current.element) {
             // retorna true se achar o valor
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.AVL.search(depth + 1, 2 * depth + 1);
             return true;
+        }
 
         if (value < current.element)
             // se o valor é menor que o nó atual, vai para a esquerda
-            return containsNode(current.left, value);
+            return containsNode(current.left, value, depth + 1);
 
         else
             // se o valor é maior que o nó atual, vai para a direita
-            return containsNode(current.right, value);
+            return containsNode(current.right, value, depth + 1);
     }
 
     /** Verificar qual é a altura da árvore */
+    @Override
     public int height() {
         return height(root);
     }
 
     // Método auxiliar do height
-    private int height(Node node) {
+    private static int height(Node node) {
         if (node == null)
             // Retorna -1 se o nó for nulo
             return -1;
@@ -111,19 +401,18 @@ public class AVLTree {
     }
 
     /** Verificar quantos elementos tem na árvore */
+    @Override
     public int size() {
-        return countNodes(root);
+        return size(root);
     }
 
-    private int countNodes(Node node) {
-        if (node == null)
-            return 0;
-
-        // conta os nós da subarvore esquerda, direita e o próprio nó
-        return 1 + countNodes(node.left) + countNodes(node.right);
+    // Método auxiliar do size
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
     }
 
     /** Verificar se a árvore está vazia ou não */
+    @Override
     public boolean isEmpty() {
         return root == null;
     }
@@ -135,6 +424,41 @@ public class AVLTree {
         return erd;
     }
 
+    /** Percorrer os elementos em ordem crescente sem copiar nada para uma lista */
+    @Override
+    public void forEach(IntConsumer action) {
+        forEach(root, action);
+    }
+
+    private static void forEach(Node node, IntConsumer action) {
+        if (node != null) {
+            forEach(node.left, action);
+            action.accept(node.element);
+            forEach(node.right, action);
+        }
+    }
+
+    /**
+     * Percorrer os elementos em ordem crescente sob demanda, sem boxing e com memória extra O(altura).
+     * A árvore não deve ser alterada durante o percurso; para isso percorra um snapshot().
+     */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new InOrderIterator(root, 0, size());
+    }
+
+    /** Dividir o caminhamento central em partes para percorrer em paralelo */
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new InOrderIterator(root, 0, size());
+    }
+
+    /** Retornar os elementos em ordem crescente como um IntStream (use parallel() para dividir entre núcleos) */
+    @Override
+    public IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
     private void inOrderTraversal(Node node, ArrayList<Integer> erd) {
         if (node != null) {
             // percorre a subarvore esquerda
@@ -150,94 +474,731 @@ public class AVLTree {
 
     // ------------- Métodos Adicionados ------------- //
 
+    @Override
     public boolean remove(int value) {
-        // remove o elemento
-        Node[] nodes = removeAVL(root, value);
+        checkWritable();
 
-        // atualiza a raiz
-        root = nodes[0];
+        // não encontrou o valor na arvore
+        if (root == null)
+            return false;
+
+        // procura o valor guardando o caminho até ele; path[0, depth) fica só com os ancestrais
+        int depth = descend(value) - 1;
+        Node current = path[depth];
+        if (current.element != value)
+            return false;
+
+        // com dois filhos, o sucessor (menor da subarvore direita) assume o valor do nó removido
+        // e quem sai fisicamente da árvore é o sucessor, que tem no máximo um filho
+        int target = -1;
+        if (current.left != null && current.right != null) {
+            target = depth;
+            path[depth++] = current;
+            current = current.right;
+            while (current.left != null) {
+                path[depth++] = current;
+                current = current.left;
+            }
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.AVL.successorSwap(depth - target);
+        }
 
-        // retorna true se for removido com sucesso
-        return nodes[1] != null;
+        unlink(depth, current, target);
+        return true;
     }
 
-    // Método auxiliar do remove
-    private Node[] removeAVL(Node current, int value) {
-        // retorna o array nulo (não encotrou o valor na arvore)
-        if (current == null)
-            return new Node[]{null, null};
+    // Tira da árvore o nó current, que tem no máximo um filho e cujos ancestrais estão em path[0, depth)
+    // (com os intervalos do finger preenchidos); com target >= 0, path[target] fica com o valor de current
+    private void unlink(int depth, Node current, int target) {
+        // copia os nós do caminho que estão congelados em algum snapshot antes de alterar
+        makePathMutable(depth);
+        if (target >= 0)
+            path[target].element = current.element;
+
+        // o único filho (ou null) assume o lugar do nó
+        Node child = current.left != null ? current.left : current.right;
+        replaceChild(depth == 0 ? null : path[depth - 1], current, child);
+
+        // todos os ancestrais perderam um nó
+        for (int i = 0; i < depth; i++)
+            path[i].size--;
+
+        // o finger vale até o nó que trocou de valor (ou até o pai do removido) e até a rotação mais alta
+        int valid = target >= 0 ? target + 1 : depth;
+        fingerDepth = Math.min(valid, retrace(depth) + 1);
+    }
 
-        Node removed;
+    // ------------- Consultas de vizinhança ------------- //
+    // Cada uma desce uma vez da raiz guardando o melhor candidato; sem resposta lança NoSuchElementException.
+
+    /** Retornar o maior elemento <= value */
+    public int floor(int value) {
+        Node result = null;
+        Node current = root;
+        while (current != null) {
+            if (current.element == value)
+                return value;
+            if (current.element < value) {
+                result = current;
+                current = current.right;
+            } else
+                current = current.left;
+        }
+        return answer(result, "<=", value);
+    }
 
-        // remove da subarvore esquerda se o valor é < que o nó atual
-        if (value < current.element) {
-            Node[] nodes = removeAVL(current.left, value);
+    /** Retornar o menor elemento >= value */
+    public int ceiling(int value) {
+        Node result = null;
+        Node current = root;
+        while (current != null) {
+            if (current.element == value)
+                return value;
+            if (current.element > value) {
+                result = current;
+                current = current.left;
+            } else
+                current = current.right;
+        }
+        return answer(result, ">=", value);
+    }
 
-            // atualiza a subarvore esquerda
-            current.left = nodes[0];
+    /** Retornar o maior elemento < value */
+    public int lower(int value) {
+        Node result = null;
+        Node current = root;
+        while (current != null) {
+            if (current.element < value) {
+                result = current;
+                current = current.right;
+            } else
+                current = current.left;
+        }
+        return answer(result, "<", value);
+    }
 
-            // guarda o nó removido
-            removed = nodes[1];
+    /** Retornar o menor elemento > value */
+    public int higher(int value) {
+        Node result = null;
+        Node current = root;
+        while (current != null) {
+            if (current.element > value) {
+                result = current;
+                current = current.left;
+            } else
+                current = current.right;
         }
+        return answer(result, ">", value);
+    }
+
+    private static int answer(Node result, String relation, int value) {
+        if (result == null)
+            throw new NoSuchElementException("Nenhum elemento " + relation + " " + value);
+        return result.element;
+    }
 
-        // remove da subarvore direita se o valor é > que o nó atual
-        else if (value > current.element) {
-            Node[] nodes = removeAVL(current.right, value);
-            current.right = nodes[0];
-            removed = nodes[1];
+    /** Retornar o menor elemento */
+    public int first() {
+        if (root == null)
+            throw new NoSuchElementException("Árvore vazia");
+        Node current = root;
+        while (current.left != null)
+            current = current.left;
+        return current.element;
+    }
+
+    /** Retornar o maior elemento */
+    public int last() {
+        if (root == null)
+            throw new NoSuchElementException("Árvore vazia");
+        Node current = root;
+        while (current.right != null)
+            current = current.right;
+        return current.element;
+    }
+
+    /** Remover e retornar o menor elemento */
+    public int pollFirst() {
+        checkWritable();
+        if (root == null)
+            throw new NoSuchElementException("Árvore vazia");
+
+        // desce pela esquerda guardando o caminho; todos os intervalos começam em -infinito
+        int depth = 0;
+        Node current = root;
+        while (current.left != null) {
+            path[depth] = current;
+            low[depth] = Long.MIN_VALUE;
+            high[depth] = depth == 0 ? Long.MAX_VALUE : path[depth - 1].element;
+            depth++;
+            current = current.left;
         }
 
-        // se achar o valor a ser removido
-        else {
-            // guarda o nó que vai ser removido
-            removed = current;
+        int value = current.element;
+        unlink(depth, current, -1);
+        return value;
+    }
 
-            // se a subarvore esquerda for nula, retorna a subarvore direita
-            if (current.left == null)
-                return new Node[]{current.right, current};
+    /** Remover e retornar o maior elemento */
+    public int pollLast() {
+        checkWritable();
+        if (root == null)
+            throw new NoSuchElementException("Árvore vazia");
+
+        // desce pela direita guardando o caminho; todos os intervalos vão até +infinito
+        int depth = 0;
+        Node current = root;
+        while (current.right != null) {
+            path[depth] = current;
+            low[depth] = depth == 0 ? Long.MIN_VALUE : path[depth - 1].element;
+            high[depth] = Long.MAX_VALUE;
+            depth++;
+            current = current.right;
+        }
 
-            // se a subarvore direita for nula, retorna a subarvore esquerda
-            else if (current.right == null)
-                return new Node[]{current.left, current};
+        int value = current.element;
+        unlink(depth, current, -1);
+        return value;
+    }
 
-            // se nada der certo, encontra o sucessor na subarvore direita para substituir o nó removido
+    /** Retornar a posição (a partir de 0) do elemento em ordem crescente, ou -1 se não estiver na árvore */
+    public int rank(int value) {
+        int rank = 0;
+        Node current = root;
+        while (current != null) {
+            if (value < current.element)
+                current = current.left;
+            else if (value > current.element) {
+                // tudo à esquerda e o próprio nó vêm antes do valor
+                rank += size(current.left) + 1;
+                current = current.right;
+            } else
+                return rank + size(current.left);
+        }
+        return -1;
+    }
+
+    /** Retornar o k-ésimo menor elemento da árvore (k começa em 0) */
+    public int select(int k) {
+        if (k < 0 || k >= size())
+            throw new IndexOutOfBoundsException("Posição " + k + " fora da árvore de tamanho " + size());
+
+        Node current = root;
+        while (true) {
+            int leftSize = size(current.left);
+            if (k < leftSize)
+                current = current.left;
+            else if (k > leftSize) {
+                k -= leftSize + 1;
+                current = current.right;
+            } else
+                return current.element;
+        }
+    }
+
+    /** Contar quantos elementos são menores que o valor */
+    public int countLessThan(int value) {
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            if (value <= current.element)
+                current = current.left;
             else {
-                Node successor = findMin(current.right);
-                // substitui o elemento atual pelo do sucessor
-                current.element = successor.element;
+                count += size(current.left) + 1;
+                current = current.right;
+            }
+        }
+        return count;
+    }
+
+    /** Contar quantos elementos estão no intervalo [lo, hi] */
+    public int countInRange(int lo, int hi) {
+        if (lo > hi)
+            return 0;
+        return countAtMost(hi) - countLessThan(lo);
+    }
+
+    /** Contar os valores no intervalo [start, end) pelos tamanhos das subárvores, em O(log n) */
+    @Override
+    public int countBetween(int start, int end) {
+        if (start >= end)
+            return 0;
+        return countLessThan(end) - countLessThan(start);
+    }
+
+    /**
+     * Somar os valores no intervalo [start, end): os nós não guardam somas, então desce até o início
+     * do intervalo pelos tamanhos e percorre só os elementos dele, em O(log n + k)
+     */
+    @Override
+    public long sumBetween(int start, int end) {
+        int from = countLessThan(start);
+        int to = Math.max(from, countLessThan(end));
+        long sum = 0;
+        PrimitiveIterator.OfInt values = new InOrderIterator(root, from, to);
+        while (values.hasNext())
+            sum += values.nextInt();
+        return sum;
+    }
 
-                // atualiza a subarvore direita
-                Node[] nodes = removeAVL(current.right, successor.element);
-                current.right = nodes[0];
+    // Conta quantos elementos são menores ou iguais ao valor
+    private int countAtMost(int value) {
+        int count = 0;
+        Node current = root;
+        while (current != null) {
+            if (value < current.element)
+                current = current.left;
+            else {
+                count += size(current.left) + 1;
+                current = current.right;
             }
         }
-        // atualiza a altura do nó atual
-        updateHeight(current);
-        // retorna o nó balanceado e o nó removido
-        return new Node[]{balance(current), removed};
+        return count;
+    }
+
+    /** Criar uma árvore perfeitamente balanceada a partir de um vetor ordenado, em O(n) */
+    public static AVLTree fromSorted(int[] sorted) {
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] < sorted[i - 1])
+                throw new IllegalArgumentException("O vetor não está ordenado na posição " + i);
+        }
+        int[] keys = sorted.clone();
+        AVLTree tree = new AVLTree();
+        tree.root = buildBalanced(keys, 0, dedup(keys, keys.length), tree.epoch);
+        return tree;
     }
 
-    private Node findMin(Node node) {
-        // percorre até encontrar o menor valor da subarvore esquerda
-        while (node.left != null) {
-            node = node.left;
+    /** Adicionar vários elementos de uma vez (o vetor não precisa estar ordenado) */
+    public void addAll(int[] values) {
+        checkWritable();
+        if (values.length == 0)
+            return;
+
+        int[] keys = values.clone();
+        if (keys.length >= PARALLEL_SORT_THRESHOLD)
+            Arrays.parallelSort(keys);
+        else
+            Arrays.sort(keys);
+        int n = dedup(keys, keys.length);
+
+        if (root == null) {
+            root = buildBalanced(keys, 0, n, epoch);
+            return;
+        }
+
+        // poucos elementos em relação à árvore: sai mais barato inserir um a um
+        int size = size();
+        if ((long) n * BULK_RATIO < size) {
+            for (int i = 0; i < n; i++)
+                add(keys[i]);
+            return;
         }
+
+        // senão, intercala com o caminhamento central atual e reconstrói em O(n + m)
+        int[] current = new int[size];
+        fillInOrder(root, current, 0);
+        int[] merged = new int[size + n];
+        int i = 0, j = 0, k = 0;
+        while (i < size && j < n) {
+            if (current[i] < keys[j])
+                merged[k++] = current[i++];
+            else if (current[i] > keys[j])
+                merged[k++] = keys[j++];
+            else {
+                merged[k++] = current[i++];
+                j++;
+            }
+        }
+        while (i < size)
+            merged[k++] = current[i++];
+        while (j < n)
+            merged[k++] = keys[j++];
+        Arrays.fill(path, null);
+        fingerDepth = 0;
+        root = buildBalanced(merged, 0, k, epoch);
+    }
+
+    // Remove repetidos de um vetor ordenado e retorna o novo tamanho
+    private static int dedup(int[] keys, int length) {
+        if (length == 0)
+            return 0;
+        int n = 1;
+        for (int i = 1; i < length; i++) {
+            if (keys[i] != keys[n - 1])
+                keys[n++] = keys[i];
+        }
+        return n;
+    }
+
+    // Monta a subárvore de keys[from, to) usando o elemento do meio como raiz
+    private static Node buildBalanced(int[] keys, int from, int to, int epoch) {
+        if (from >= to)
+            return null;
+        int mid = (from + to) >>> 1;
+        Node node = new Node(keys[mid], buildBalanced(keys, from, mid, epoch), buildBalanced(keys, mid + 1, to, epoch));
+        node.epoch = epoch;
+        updateHeight(node);
+        updateSize(node);
         return node;
     }
 
+    /**
+     * Salvar a árvore em um arquivo binário compacto (5 bytes por elemento, em pré-ordem com as alturas).
+     * O arquivo é escrito ao lado com extensão .tmp e só depois substitui o destino, então uma queda no
+     * meio do save não corrompe o arquivo anterior. Para salvar sem parar as alterações, salve um snapshot().
+     */
+    public void save(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(FILE_BUFFER_SIZE);
+            CRC32 crc = new CRC32();
+            channel.position(FILE_HEADER_SIZE);
+
+            // pré-ordem com pilha explícita: a pilha nunca passa da altura da árvore
+            Node[] stack = new Node[MAX_HEIGHT];
+            int top = -1;
+            if (root != null)
+                stack[++top] = root;
+            while (top >= 0) {
+                Node node = stack[top--];
+                if (buffer.remaining() < FILE_RECORD_SIZE)
+                    writeRecords(channel, buffer, crc);
+                buffer.putInt(node.element).put((byte) node.height);
+                if (node.right != null)
+                    stack[++top] = node.right;
+                if (node.left != null)
+                    stack[++top] = node.left;
+            }
+            writeRecords(channel, buffer, crc);
+
+            // o cabeçalho é escrito por último, quando o CRC já é conhecido
+            buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(size()).putInt((int) crc.getValue()).flip();
+            long position = 0;
+            while (buffer.hasRemaining())
+                position += channel.write(buffer, position);
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Escreve os registros acumulados no buffer e atualiza o CRC
+    private static void writeRecords(FileChannel channel, ByteBuffer buffer, CRC32 crc) throws IOException {
+        buffer.flip();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Carregar uma árvore salva com save(), mapeando o arquivo em memória. A forma salva é reconstruída
+     * exatamente como estava, em O(n) e sem nenhuma rotação; lança IOException se o arquivo estiver
+     * truncado, for de outra versão ou não bater com o CRC.
+     */
+    public static AVLTree load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long length = channel.size();
+            if (length < FILE_HEADER_SIZE || length > Integer.MAX_VALUE)
+                throw new IOException("Arquivo de árvore AVL inválido: " + file);
+
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+            if (map.getInt(0) != FILE_MAGIC)
+                throw new IOException("Arquivo não é uma árvore AVL salva: " + file);
+            if (map.getInt(4) != FILE_VERSION)
+                throw new IOException("Versão " + map.getInt(4) + " do arquivo não suportada: " + file);
+            int count = map.getInt(8);
+            if (count < 0 || length != FILE_HEADER_SIZE + (long) count * FILE_RECORD_SIZE)
+                throw new IOException("Arquivo de árvore AVL truncado: " + file);
+
+            CRC32 crc = new CRC32();
+            crc.update(map.position(FILE_HEADER_SIZE));
+            if ((int) crc.getValue() != map.getInt(12))
+                throw new IOException("CRC do arquivo de árvore AVL não confere: " + file);
+
+            AVLTree tree = new AVLTree();
+            tree.root = readRecords(map, count, tree.epoch);
+            return tree;
+        }
+    }
+
+    // Religa os nós da pré-ordem: cada nó é filho esquerdo do anterior se for menor, senão é filho
+    // direito do último ancestral menor que ele (a pilha guarda o caminho dos nós ainda sem filho direito)
+    private static Node readRecords(MappedByteBuffer map, int count, int epoch) throws IOException {
+        Node[] nodes = new Node[count];
+        Node[] stack = new Node[MAX_HEIGHT];
+        int top = -1;
+
+        for (int i = 0; i < count; i++) {
+            int offset = FILE_HEADER_SIZE + i * FILE_RECORD_SIZE;
+            Node node = new Node(map.getInt(offset));
+            node.height = map.get(offset + 4);
+            node.epoch = epoch;
+            nodes[i] = node;
+
+            if (top >= 0 && node.element < stack[top].element)
+                stack[top].left = node;
+            else if (top >= 0) {
+                Node parent;
+                do
+                    parent = stack[top--];
+                while (top >= 0 && stack[top].element < node.element);
+                parent.right = node;
+            }
+            if (++top == MAX_HEIGHT)
+                throw new IOException("Altura inválida no arquivo de árvore AVL");
+            stack[top] = node;
+        }
+
+        // na pré-ordem invertida os filhos vêm antes dos pais, então os tamanhos saem numa passada
+        for (int i = count - 1; i >= 0; i--)
+            updateSize(nodes[i]);
+        return count == 0 ? null : nodes[0];
+    }
+
+    // Copia o caminhamento central para o vetor e retorna a próxima posição livre
+    private int fillInOrder(Node node, int[] out, int i) {
+        if (node == null)
+            return i;
+        i = fillInOrder(node.left, out, i);
+        out[i++] = node.element;
+        return fillInOrder(node.right, out, i);
+    }
+
+    // ------------- Split, join e operações de conjunto ------------- //
+    // Todas são feitas por join (Blelloch et al., "Just Join for Parallel Ordered Sets"): as árvores de
+    // entrada são congeladas e continuam valendo, e o resultado compartilha com elas os nós que não mudaram.
+
+    /** Resultado do split: os elementos menores e os maiores que a chave, e se a chave estava na árvore */
+    public static final class Split {
+        public final AVLTree left;
+        public final AVLTree right;
+        public final boolean found;
+
+        private Split(AVLTree left, AVLTree right, boolean found) {
+            this.left = left;
+            this.right = right;
+            this.found = found;
+        }
+    }
+
+    /** Dividir a árvore em duas pela chave, em O(log n); esta árvore não é alterada */
+    public Split split(int key) {
+        freeze();
+        AVLTree left = new AVLTree();
+        AVLTree right = new AVLTree();
+        Node[] parts = new Node[2];
+        boolean found = left.splitNode(root, key, parts);
+        left.root = parts[0];
+        right.root = parts[1];
+        return new Split(left, right, found);
+    }
+
+    /**
+     * Juntar duas árvores e uma chave em O(|altura(left) - altura(right)|), sendo todos os elementos de
+     * left menores que key e todos os de right maiores; as árvores recebidas não são alteradas
+     */
+    public static AVLTree join(AVLTree left, int key, AVLTree right) {
+        Node max = left.root;
+        while (max != null && max.right != null)
+            max = max.right;
+        Node min = right.root;
+        while (min != null && min.left != null)
+            min = min.left;
+        if (max != null && max.element >= key || min != null && min.element <= key)
+            throw new IllegalArgumentException("Os elementos de left devem ser menores e os de right maiores que " + key);
+
+        left.freeze();
+        right.freeze();
+        AVLTree result = new AVLTree();
+        result.root = result.joinNodes(left.root, result.newNode(key), right.root);
+        return result;
+    }
+
+    /** Retornar uma nova árvore com os elementos das duas, em O(m log(n/m + 1)) */
+    public AVLTree union(AVLTree other) {
+        return setOperation(SetOperation.UNION, other);
+    }
+
+    /** Retornar uma nova árvore com os elementos presentes nas duas, em O(m log(n/m + 1)) */
+    public AVLTree intersection(AVLTree other) {
+        return setOperation(SetOperation.INTERSECTION, other);
+    }
+
+    /** Retornar uma nova árvore com os elementos desta que não estão na outra, em O(m log(n/m + 1)) */
+    public AVLTree difference(AVLTree other) {
+        return setOperation(SetOperation.DIFFERENCE, other);
+    }
+
+    /** Adicionar todos os elementos de outra árvore nesta, pela união (a outra não é alterada) */
+    public void addAll(AVLTree other) {
+        checkWritable();
+        other.freeze();
+        root = setRoot(SetOperation.UNION, root, other.root);
+        Arrays.fill(path, null);
+        fingerDepth = 0;
+    }
+
+    private enum SetOperation { UNION, INTERSECTION, DIFFERENCE }
+
+    private AVLTree setOperation(SetOperation operation, AVLTree other) {
+        freeze();
+        other.freeze();
+        AVLTree result = new AVLTree();
+        result.root = result.setRoot(operation, root, other.root);
+        return result;
+    }
+
+    // Entradas grandes são processadas dentro do ForkJoinPool comum, onde o setNodes divide as tarefas
+    private Node setRoot(SetOperation operation, Node a, Node b) {
+        if (size(a) + size(b) > PARALLEL_SET_THRESHOLD)
+            return ForkJoinPool.commonPool().invoke(new SetTask(operation, a, b));
+        return setNodes(operation, a, b);
+    }
+
+    // Divide a pelo elemento da raiz de b e combina recursivamente as metades (em paralelo se forem grandes)
+    private Node setNodes(SetOperation operation, Node a, Node b) {
+        if (a == null)
+            return operation == SetOperation.UNION ? b : null;
+        if (b == null)
+            return operation == SetOperation.INTERSECTION ? null : a;
+
+        Node[] parts = new Node[2];
+        boolean found = splitNode(a, b.element, parts);
+        Node left, right;
+        if (size(a) + size(b) > PARALLEL_SET_THRESHOLD) {
+            SetTask task = new SetTask(operation, parts[0], b.left);
+            task.fork();
+            right = setNodes(operation, parts[1], b.right);
+            left = task.join();
+        } else {
+            left = setNodes(operation, parts[0], b.left);
+            right = setNodes(operation, parts[1], b.right);
+        }
+
+        if (operation == SetOperation.UNION || operation == SetOperation.INTERSECTION && found)
+            return joinNodes(left, mutable(b), right);
+        return joinNodes2(left, right);
+    }
+
+    private class SetTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final SetOperation operation;
+        private final Node a, b;
+
+        SetTask(SetOperation operation, Node a, Node b) {
+            this.operation = operation;
+            this.a = a;
+            this.b = b;
+        }
+
+        @Override
+        protected Node compute() {
+            return setNodes(operation, a, b);
+        }
+    }
+
+    // Separa os menores (parts[0]) e os maiores (parts[1]) que key e retorna se a key estava na subárvore
+    private boolean splitNode(Node node, int key, Node[] parts) {
+        if (node == null) {
+            parts[0] = parts[1] = null;
+            return false;
+        }
+        if (key == node.element) {
+            parts[0] = node.left;
+            parts[1] = node.right;
+            return true;
+        }
+
+        boolean found;
+        if (key < node.element) {
+            found = splitNode(node.left, key, parts);
+            parts[1] = joinNodes(parts[1], mutable(node), node.right);
+        } else {
+            found = splitNode(node.right, key, parts);
+            parts[0] = joinNodes(node.left, mutable(node), parts[0]);
+        }
+        return found;
+    }
+
+    // Junta left, middle e right (nessa ordem) em uma AVL; middle precisa ser um nó mutável desta época
+    private Node joinNodes(Node left, Node middle, Node right) {
+        if (height(left) > height(right) + 1)
+            return joinRight(left, middle, right);
+        if (height(right) > height(left) + 1)
+            return joinLeft(left, middle, right);
+
+        middle.left = left;
+        middle.right = right;
+        updateHeight(middle);
+        updateSize(middle);
+        return middle;
+    }
+
+    // left é mais alta: desce pela direita dela até achar uma subárvore da altura de right e rebalanceia na volta
+    private Node joinRight(Node left, Node middle, Node right) {
+        if (height(left) <= height(right) + 1)
+            return joinNodes(left, middle, right);
+
+        Node node = mutable(left);
+        node.right = joinRight(node.right, middle, right);
+        updateHeight(node);
+        updateSize(node);
+        return balance(node);
+    }
+
+    // Simétrico do joinRight, para right mais alta
+    private Node joinLeft(Node left, Node middle, Node right) {
+        if (height(right) <= height(left) + 1)
+            return joinNodes(left, middle, right);
+
+        Node node = mutable(right);
+        node.left = joinLeft(left, middle, node.left);
+        updateHeight(node);
+        updateSize(node);
+        return balance(node);
+    }
+
+    // Junta duas árvores sem chave no meio, usando o maior elemento de left como meio
+    private Node joinNodes2(Node left, Node right) {
+        if (left == null)
+            return right;
+        if (right == null)
+            return left;
+        Node[] last = new Node[1];
+        Node rest = removeLast(left, last);
+        return joinNodes(rest, mutable(last[0]), right);
+    }
+
+    // Retira o maior nó da subárvore (devolvido em last[0]) e retorna o resto rebalanceado
+    private Node removeLast(Node node, Node[] last) {
+        if (node.right == null) {
+            last[0] = node;
+            return node.left;
+        }
+        Node rest = removeLast(node.right, last);
+        return joinNodes(node.left, mutable(node), rest);
+    }
+
     private Node balance(Node node) {
         // calculando o FB do nó (FB = altura(esquerda) - altura(direita))
         int balanceFactor = getBalance(node);
 
         // verifica se desbalanceou a esquerda
         if (balanceFactor > 1) {
-            if (getBalance(node.left) >= 0)
+            if (getBalance(node.left) >= 0) {
                 // rotaciona pra direita
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.AVL.singleRotation();
                 node = rotateRight(node);
+            }
 
             else {
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.AVL.doubleRotation();
                 // rotaciona pra esquerda na subarvore esquerda
-                node.left = rotateLeft(node.left);
+                node.left = rotateLeft(mutable(node.left));
                 // rotaciona a direita o nó atual
                 node = rotateRight(node);
             }
@@ -245,13 +1206,18 @@ public class AVLTree {
 
         // verifica se desbalanceou a direita
         else if (balanceFactor < -1) {
-            if (getBalance(node.right) <= 0)
+            if (getBalance(node.right) <= 0) {
                 // rotaciona a esquerda
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.AVL.singleRotation();
                 node = rotateLeft(node);
+            }
 
             else {
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.AVL.doubleRotation();
                 // rotaciona a direita na subarvore direita
-                node.right = rotateRight(node.right);
+                node.right = rotateRight(mutable(node.right));
                 // rotaciona a esquerda no nó atual
                 node = rotateLeft(node);
             }
@@ -260,17 +1226,22 @@ public class AVLTree {
     }
 
     // Método auxilair pra att. a altura do nó
-    private void updateHeight(Node node) {
+    private static void updateHeight(Node node) {
         node.height = 1 + Math.max(height(node.left), height(node.right));
     }
 
+    // Método auxiliar pra att. o tamanho da subárvore do nó
+    private static void updateSize(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+    }
+
     private int getBalance(Node node) {
         return node == null ? 0 : height(node.left) - height(node.right);
     }
 
     private Node rotateRight(Node y) {
-        // x = filho esquerdo de y
-        Node x = y.left;
+        // x = filho esquerdo de y (copiado se estiver congelado em um snapshot)
+        Node x = mutable(y.left);
 
         // filho direito de X = filho esquerdo de Y
         y.left = x.right;
@@ -281,12 +1252,15 @@ public class AVLTree {
         // att. altura do y e x
         updateHeight(y);
         updateHeight(x);
+        // att. tamanho do y e x
+        updateSize(y);
+        updateSize(x);
         return x;
     }
 
     private Node rotateLeft(Node y) {
-        // x = filho direito de y
-        Node x = y.right;
+        // x = filho direito de y (copiado se estiver congelado em um snapshot)
+        Node x = mutable(y.right);
 
         // filho esquerdo de x = filho dirieto de y
         y.right = x.left;
@@ -297,17 +1271,18 @@ public class AVLTree {
         // att. altura de y e x
         updateHeight(y);
         updateHeight(x);
+        // att. tamanho do y e x
+        updateSize(y);
+        updateSize(x);
         return x;
     }
 
 
     // Imprimir a arvore ERD
     public void printInOrder() {
-        ArrayList<Integer> inOrderList = inOrder();
         System.out.println("Elementos da árvore AVL em ordem:");
-        for (Integer element : inOrderList) {
-            System.out.print(element + " , ");
-        }
+        // percorre sob demanda, sem montar a lista de elementos
+        forEach(element -> System.out.print(element + " , "));
         System.out.println();
     }
 
@@ -321,17 +1296,170 @@ public class AVLTree {
         System.out.println(formattedTree);
     }
 
+    /**
+     * Desenhar só a subárvore do valor informado, até maxDepth níveis abaixo dele, escrevendo as linhas
+     * direto no System.out (para inspecionar pedaços de árvores grandes)
+     */
+    public void printSubtree(int value, int maxDepth) {
+        Node node = root;
+        while (node != null && node.element != value)
+            node = value < node.element ? node.left : node.right;
+
+        if (node == null) {
+            System.out.println("Elemento não encontrado!");
+            return;
+        }
+        try {
+            new TreeRenderer<>(NodeAccessor.AVL).render(node, maxDepth, System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     // Mostrar informações
     public void treeInfo() {
+        TreeStats stats = stats(size() > PARALLEL_STATS_THRESHOLD);
         System.out.println("Informações da Árvore AVL:");
-        System.out.println("Altura da árvore: " + height());
-        System.out.println("Número de elementos na árvore: " + size());
+        System.out.println("Altura da árvore: " + stats.height);
+        System.out.println("Número de elementos na árvore: " + stats.nodeCount);
+        System.out.println("Folhas: " + stats.leaves + " (soma " + stats.leafSum + ")");
+        System.out.println("Comprimento médio dos caminhos: " + stats.averagePathLength);
         System.out.println("Elementos em ordem:");
         printInOrder();
     }
 
+    /** Calcular as estatísticas de forma da árvore em uma passada, opcionalmente com fork/join */
+    public TreeStats stats(boolean parallel) {
+        return parallel ? TreeStats.ofParallel(root, NodeAccessor.AVL) : TreeStats.of(root, NodeAccessor.AVL);
+    }
+
+    /** Memória retida pela árvore; nós compartilhados com snapshots também contam aqui */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        long bytes = MemoryFootprint.instanceSize(AVLTree.class)
+                + MemoryFootprint.instanceSize(AVLFormatter.class)
+                + MemoryFootprint.arraySize(Node.class, path.length)
+                + 2 * MemoryFootprint.arraySize(long.class, MAX_HEIGHT)
+                + size() * MemoryFootprint.instanceSize(Node.class);
+        return new MemoryFootprint("AVLTree", size(), bytes);
+    }
+
+    /** Retornar os contadores de todas as AVLTree (comparações, rotações, profundidade das buscas), ver TreeMetrics */
+    public static TreeMetrics.Snapshot metrics() {
+        return TreeMetrics.AVL.snapshot();
+    }
+
+    /**
+     * Caminhamento central das posições [from, to) da subárvore, com uma pilha explícita dos ancestrais.
+     * A divisão (trySplit) é feita pela posição do meio, então as partes ficam com tamanhos exatos e
+     * a pilha só é montada na primeira leitura, descendo até a posição inicial pelos tamanhos.
+     */
+    private static class InOrderIterator implements PrimitiveIterator.OfInt, Spliterator.OfInt {
+        private final Node root;
+        private final Node[] stack = new Node[MAX_HEIGHT];
+        private int top = -1;
+        private int from;
+        private final int to;
+        private boolean started;
+
+        InOrderIterator(Node root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        // Empilha o caminho até a posição inicial; o topo da pilha é sempre o próximo elemento
+        private void start() {
+            started = true;
+            int k = from;
+            Node node = from < to ? root : null;
+            while (node != null) {
+                int leftSize = size(node.left);
+                if (k < leftSize) {
+                    stack[++top] = node;
+                    node = node.left;
+                } else if (k == leftSize) {
+                    stack[++top] = node;
+                    node = null;
+                } else {
+                    k -= leftSize + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return from < to;
+        }
+
+        @Override
+        public int nextInt() {
+            if (from >= to)
+                throw new NoSuchElementException();
+            if (!started)
+                start();
+
+            Node node = stack[top--];
+            // o próximo é o menor da subárvore direita
+            for (Node child = node.right; child != null; child = child.left)
+                stack[++top] = child;
+            from++;
+            return node.element;
+        }
+
+        @Override
+        public boolean tryAdvance(IntConsumer action) {
+            if (from >= to)
+                return false;
+            action.accept(nextInt());
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(IntConsumer action) {
+            while (from < to)
+                action.accept(nextInt());
+        }
+
+        // herdado das duas interfaces; delega para a versão sem boxing
+        @Override
+        public void forEachRemaining(Consumer<? super Integer> action) {
+            forEachRemaining(action instanceof IntConsumer ? (IntConsumer) action : (IntConsumer) action::accept);
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit() {
+            int mid = (from + to) >>> 1;
+            // depois de começar a percorrer, a pilha já aponta para a posição atual
+            if (started || mid <= from)
+                return null;
+            InOrderIterator prefix = new InOrderIterator(root, from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        // ordem natural dos int
+        @Override
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return to - from;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | SORTED | DISTINCT | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+
     static class Node {
-        int element, height;
+        // size = quantidade de nós da subárvore que começa neste nó
+        // epoch = versão da árvore que criou o nó (ver snapshot)
+        int element, height, size, epoch;
         Node left, right;
 
         Node(int element) {
@@ -343,11 +1471,18 @@ public class AVLTree {
             this.left = left;
             this.right = right;
             height = 0;
+            size = 1;
         }
     }
 
     // Implemente um método main que instancie a árvore implementada e chame os seus métodos para verificar o correto funcionamento;
     public static void main(String[] args) {
+        // com argumentos roda o modo de comandos (ver BatchMode) em vez do menu
+        if (args.length > 0) {
+            BatchMode.run(TreeEngine.AVL, args);
+            return;
+        }
+
         Scanner in = new Scanner(System.in);
         // Instanciar a árvore implementada;
         AVLTree avlTree = new AVLTree();
@@ -0,0 +1,286 @@
+// Imports
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * CLASSE ArrayAVLTree
+ * Árvore AVL com o mesmo comportamento da AVLTree, mas guardando os nodos em vetores paralelos
+ * de int (keys, left, right, height) em vez de um objeto Node por elemento.
+ *
+ * Cada nodo é um índice nos vetores, e NIL (-1) representa o filho nulo. Posições liberadas
+ * pelo remove entram numa lista livre (encadeada pelo próprio vetor left) e são reaproveitadas
+ * no próximo add.
+ *
+ * Comparação de memória (JVM 64 bits com compressed oops):
+ * - AVLTree.Node: 12 (cabeçalho) + 4 (element) + 4 (height) + 2 x 4 (left/right) = 28 -> 32 bytes por chave
+ * - ArrayAVLTree: 4 vetores x 4 bytes = 16 bytes por posição, no máximo 24 bytes por chave logo após
+ *   o crescimento (fator 1.5), sem nenhum objeto extra para o GC percorrer
+ */
+public class ArrayAVLTree {
+    private static final int NIL = -1;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] keys;
+    private int[] left;
+    private int[] right;
+    private int[] height;
+
+    private int root;
+    private int count;
+    // primeira posição nunca usada
+    private int nextSlot;
+    // início da lista de posições liberadas (encadeadas por left)
+    private int freeList;
+
+    // usado pelo removeAVL para indicar se achou o valor
+    private boolean removed;
+
+    public ArrayAVLTree() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ArrayAVLTree(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        keys = new int[capacity];
+        left = new int[capacity];
+        right = new int[capacity];
+        height = new int[capacity];
+        clear();
+    }
+
+    /** Adicionar elementos na árvore */
+    public void add(int value) {
+        root = addAVL(root, value);
+    }
+
+    // Método auxiliar pro add
+    private int addAVL(int current, int value) {
+        if (current == NIL)
+            // se encontrar um nó nulo, cria o novo nó nele
+            return newNode(value);
+
+        // o filho é calculado antes da atribuição porque o newNode pode trocar os vetores ao crescer
+        if (value < keys[current]) {
+            int child = addAVL(left[current], value);
+            left[current] = child;
+        }
+
+        else if (value > keys[current]) {
+            int child = addAVL(right[current], value);
+            right[current] = child;
+        }
+
+        else
+            // se o valor já existir, ele retorna o atual
+            return current;
+
+        updateHeight(current);
+        return balance(current);
+    }
+
+    /** Retornar o pai de um elemento */
+    public Integer getParent(int value) {
+        int parent = NIL;
+        int current = root;
+
+        while (current != NIL && keys[current] != value) {
+            parent = current;
+            current = value < keys[current] ? left[current] : right[current];
+        }
+
+        // retorna o pai do elemento ou nulo (se não achar ou se for a raiz)
+        return current == NIL || parent == NIL ? null : keys[parent];
+    }
+
+    /** Limpar o conteúdo da árvore */
+    public void clear() {
+        root = NIL;
+        count = 0;
+        nextSlot = 0;
+        freeList = NIL;
+    }
+
+    /** Verificar se um elemento está armazenado na árvore ou não */
+    public boolean contains(int value) {
+        int current = root;
+        while (current != NIL) {
+            if (value == keys[current])
+                return true;
+            current = value < keys[current] ? left[current] : right[current];
+        }
+        return false;
+    }
+
+    /** Verificar qual é a altura da árvore */
+    public int height() {
+        return height(root);
+    }
+
+    // Método auxiliar do height
+    private int height(int node) {
+        return node == NIL ? -1 : height[node];
+    }
+
+    /** Verificar quantos elementos tem na árvore */
+    public int size() {
+        return count;
+    }
+
+    /** Verificar se a árvore está vazia ou não */
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    /** Retornar os elementos da árvore em uma lista usando caminhamento central */
+    public ArrayList<Integer> inOrder() {
+        ArrayList<Integer> erd = new ArrayList<>(count);
+        inOrderTraversal(root, erd);
+        return erd;
+    }
+
+    private void inOrderTraversal(int node, ArrayList<Integer> erd) {
+        if (node != NIL) {
+            inOrderTraversal(left[node], erd);
+            erd.add(keys[node]);
+            inOrderTraversal(right[node], erd);
+        }
+    }
+
+    /** Remover um elemento da árvore */
+    public boolean remove(int value) {
+        removed = false;
+        root = removeAVL(root, value);
+        return removed;
+    }
+
+    // Método auxiliar do remove
+    private int removeAVL(int current, int value) {
+        if (current == NIL)
+            return NIL;
+
+        if (value < keys[current])
+            left[current] = removeAVL(left[current], value);
+
+        else if (value > keys[current])
+            right[current] = removeAVL(right[current], value);
+
+        else {
+            removed = true;
+
+            // com no máximo um filho, o filho assume o lugar do nó removido
+            if (left[current] == NIL || right[current] == NIL) {
+                int child = left[current] == NIL ? right[current] : left[current];
+                freeNode(current);
+                return child;
+            }
+
+            // com dois filhos, copia o sucessor e remove ele da subarvore direita
+            int successor = findMin(right[current]);
+            keys[current] = keys[successor];
+            right[current] = removeAVL(right[current], keys[successor]);
+        }
+
+        updateHeight(current);
+        return balance(current);
+    }
+
+    private int findMin(int node) {
+        while (left[node] != NIL)
+            node = left[node];
+        return node;
+    }
+
+    private int balance(int node) {
+        int balanceFactor = getBalance(node);
+
+        // desbalanceou a esquerda
+        if (balanceFactor > 1) {
+            if (getBalance(left[node]) < 0)
+                left[node] = rotateLeft(left[node]);
+            node = rotateRight(node);
+        }
+
+        // desbalanceou a direita
+        else if (balanceFactor < -1) {
+            if (getBalance(right[node]) > 0)
+                right[node] = rotateRight(right[node]);
+            node = rotateLeft(node);
+        }
+        return node;
+    }
+
+    private void updateHeight(int node) {
+        height[node] = 1 + Math.max(height(left[node]), height(right[node]));
+    }
+
+    private int getBalance(int node) {
+        return node == NIL ? 0 : height(left[node]) - height(right[node]);
+    }
+
+    private int rotateRight(int y) {
+        int x = left[y];
+        left[y] = right[x];
+        right[x] = y;
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    private int rotateLeft(int y) {
+        int x = right[y];
+        right[y] = left[x];
+        left[x] = y;
+        updateHeight(y);
+        updateHeight(x);
+        return x;
+    }
+
+    // Aloca uma posição para o novo nó, reaproveitando as liberadas antes
+    private int newNode(int value) {
+        int node;
+        if (freeList != NIL) {
+            node = freeList;
+            freeList = left[node];
+        } else {
+            if (nextSlot == keys.length)
+                grow();
+            node = nextSlot++;
+        }
+        keys[node] = value;
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 0;
+        count++;
+        return node;
+    }
+
+    // Devolve a posição para a lista livre
+    private void freeNode(int node) {
+        left[node] = freeList;
+        freeList = node;
+        count--;
+    }
+
+    private void grow() {
+        int capacity = keys.length + (keys.length >> 1) + 1;
+        keys = Arrays.copyOf(keys, capacity);
+        left = Arrays.copyOf(left, capacity);
+        right = Arrays.copyOf(right, capacity);
+        height = Arrays.copyOf(height, capacity);
+    }
+
+    /** Memória retida pela árvore: os quatro vetores pela capacidade atual, não só pelas posições usadas */
+    public MemoryFootprint memoryFootprint() {
+        long bytes = MemoryFootprint.instanceSize(ArrayAVLTree.class) + 4 * MemoryFootprint.arraySize(int.class, keys.length);
+        return new MemoryFootprint("ArrayAVLTree", count, bytes);
+    }
+
+    // Imprimir a arvore ERD
+    public void printInOrder() {
+        System.out.println("Elementos da árvore AVL em ordem:");
+        for (Integer element : inOrder()) {
+            System.out.print(element + " , ");
+        }
+        System.out.println();
+    }
+}
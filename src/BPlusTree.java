@@ -0,0 +1,486 @@
+// Imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * CLASSE BPlusTree
+ * Árvore B+ de int, mais um motor de IntOrderedSet, pensada para o cache do processador.
+ *
+ * Nas árvores binárias cada nível é um nodo em outro lugar da memória (uma falta de cache por nível,
+ * ~25 em 30M chaves). Aqui cada nodo é um vetor de int de até 64 posições (256 bytes = 4 linhas de
+ * cache), então com 30M chaves a busca passa por só 4 ou 5 nodos e dentro de cada um faz uma busca
+ * binária num vetor contínuo.
+ * - nodos internos guardam só separadores: o filho i tem as chaves < keys[i] e o filho i + 1 as >= keys[i]
+ * - todas as chaves ficam nas folhas, encadeadas da menor para a maior, então o inOrder e as consultas
+ *   de intervalo (sumBetween/countBetween) são percursos sequenciais de vetores, sem subir na árvore
+ * - nodos que ficam com menos da metade pegam uma chave emprestada de um irmão ou se juntam a ele
+ */
+public class BPlusTree implements IntOrderedSet {
+    private static final int LEAF_CAPACITY = 64;
+    private static final int LEAF_MIN = LEAF_CAPACITY / 2;
+    // quantidade máxima de filhos de um nodo interno (com um separador a menos)
+    private static final int INNER_CAPACITY = 64;
+    private static final int INNER_MIN = INNER_CAPACITY / 2;
+
+    private Node root = new Leaf();
+    // quantidade de níveis; com 1 a raiz é uma folha
+    private int levels = 1;
+    private int count;
+
+    // resultado do add recursivo: se a chave entrou e o separador da divisão, quando houver
+    private boolean inserted;
+    private int splitKey;
+    // vetores reaproveitados ao dividir um nodo interno cheio
+    private final int[] splitKeys = new int[INNER_CAPACITY];
+    private final Node[] splitChildren = new Node[INNER_CAPACITY + 1];
+
+    /** Adicionar elementos na árvore (retorna false se o valor já existia) */
+    @Override
+    public boolean add(int value) {
+        Node sibling = insert(root, levels, value);
+        if (!inserted)
+            return false;
+
+        // a raiz dividiu: cresce um nível
+        if (sibling != null) {
+            Inner newRoot = new Inner();
+            newRoot.children[0] = root;
+            newRoot.children[1] = sibling;
+            newRoot.keys[0] = splitKey;
+            newRoot.size = 2;
+            root = newRoot;
+            levels++;
+        }
+        count++;
+        return true;
+    }
+
+    // Insere na subárvore e retorna o novo irmão à direita se o nodo dividir (o separador fica em splitKey)
+    private Node insert(Node node, int level, int value) {
+        if (level == 1)
+            return insertIntoLeaf((Leaf) node, value);
+
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, value);
+        Node sibling = insert(inner.children[index], level - 1, value);
+        return sibling == null ? null : insertChild(inner, index, splitKey, sibling);
+    }
+
+    private Node insertIntoLeaf(Leaf leaf, int value) {
+        int position = lowerBound(leaf.keys, leaf.size, value);
+        if (position < leaf.size && leaf.keys[position] == value) {
+            inserted = false;
+            return null;
+        }
+        inserted = true;
+
+        if (leaf.size < LEAF_CAPACITY) {
+            insertAt(leaf, position, value);
+            return null;
+        }
+
+        // folha cheia: a metade de cima vai para uma folha nova; inserindo depois da última folha
+        // (chaves em ordem crescente) a folha atual fica cheia e a nova começa só com o valor
+        int half = position == LEAF_CAPACITY && leaf.next == null ? LEAF_CAPACITY : LEAF_CAPACITY / 2;
+        Leaf right = new Leaf();
+        System.arraycopy(leaf.keys, half, right.keys, 0, LEAF_CAPACITY - half);
+        right.size = LEAF_CAPACITY - half;
+        leaf.size = half;
+        right.next = leaf.next;
+        leaf.next = right;
+
+        if (position <= half && half < LEAF_CAPACITY)
+            insertAt(leaf, position, value);
+        else
+            insertAt(right, position - half, value);
+        splitKey = right.keys[0];
+        return right;
+    }
+
+    private static void insertAt(Leaf leaf, int position, int value) {
+        System.arraycopy(leaf.keys, position, leaf.keys, position + 1, leaf.size - position);
+        leaf.keys[position] = value;
+        leaf.size++;
+    }
+
+    // Coloca o separador em keys[index] e o filho em children[index + 1], dividindo o nodo se estiver cheio
+    private Node insertChild(Inner inner, int index, int key, Node child) {
+        int keyCount = inner.size - 1;
+        if (inner.size < INNER_CAPACITY) {
+            System.arraycopy(inner.keys, index, inner.keys, index + 1, keyCount - index);
+            inner.keys[index] = key;
+            System.arraycopy(inner.children, index + 1, inner.children, index + 2, inner.size - index - 1);
+            inner.children[index + 1] = child;
+            inner.size++;
+            return null;
+        }
+
+        // monta a sequência completa (um filho a mais que a capacidade) e divide ao meio
+        System.arraycopy(inner.keys, 0, splitKeys, 0, index);
+        splitKeys[index] = key;
+        System.arraycopy(inner.keys, index, splitKeys, index + 1, keyCount - index);
+        System.arraycopy(inner.children, 0, splitChildren, 0, index + 1);
+        splitChildren[index + 1] = child;
+        System.arraycopy(inner.children, index + 1, splitChildren, index + 2, inner.size - index - 1);
+
+        int leftSize = (INNER_CAPACITY + 1) / 2;
+        int rightSize = INNER_CAPACITY + 1 - leftSize;
+        Inner right = new Inner();
+        System.arraycopy(splitKeys, 0, inner.keys, 0, leftSize - 1);
+        System.arraycopy(splitChildren, 0, inner.children, 0, leftSize);
+        Arrays.fill(inner.children, leftSize, INNER_CAPACITY, null);
+        inner.size = leftSize;
+        System.arraycopy(splitKeys, leftSize, right.keys, 0, rightSize - 1);
+        System.arraycopy(splitChildren, leftSize, right.children, 0, rightSize);
+        right.size = rightSize;
+
+        // o separador do meio sobe para o pai
+        splitKey = splitKeys[leftSize - 1];
+        Arrays.fill(splitChildren, null);
+        return right;
+    }
+
+    /** Remover um elemento da árvore */
+    @Override
+    public boolean remove(int value) {
+        if (!delete(root, levels, value))
+            return false;
+        count--;
+
+        // raiz interna com um único filho: diminui um nível
+        if (levels > 1 && root.size == 1) {
+            root = ((Inner) root).children[0];
+            levels--;
+        }
+        return true;
+    }
+
+    private boolean delete(Node node, int level, int value) {
+        if (level == 1) {
+            Leaf leaf = (Leaf) node;
+            int position = lowerBound(leaf.keys, leaf.size, value);
+            if (position == leaf.size || leaf.keys[position] != value)
+                return false;
+            System.arraycopy(leaf.keys, position + 1, leaf.keys, position, leaf.size - position - 1);
+            leaf.size--;
+            return true;
+        }
+
+        Inner inner = (Inner) node;
+        int index = childIndex(inner, value);
+        Node child = inner.children[index];
+        if (!delete(child, level - 1, value))
+            return false;
+
+        boolean leaves = level == 2;
+        if (child.size < (leaves ? LEAF_MIN : INNER_MIN))
+            rebalance(inner, index, leaves);
+        return true;
+    }
+
+    // O filho index ficou com menos da metade: pega emprestado de um irmão com sobra ou se junta a um irmão
+    private static void rebalance(Inner parent, int index, boolean leaves) {
+        int min = leaves ? LEAF_MIN : INNER_MIN;
+        Node left = index > 0 ? parent.children[index - 1] : null;
+        Node right = index + 1 < parent.size ? parent.children[index + 1] : null;
+
+        if (right != null && right.size > min) {
+            if (leaves)
+                borrowFromRight(parent, index, (Leaf) parent.children[index], (Leaf) right);
+            else
+                borrowFromRight(parent, index, (Inner) parent.children[index], (Inner) right);
+        } else if (left != null && left.size > min) {
+            if (leaves)
+                borrowFromLeft(parent, index, (Leaf) parent.children[index], (Leaf) left);
+            else
+                borrowFromLeft(parent, index, (Inner) parent.children[index], (Inner) left);
+        } else if (right != null)
+            merge(parent, index, leaves);
+        else if (left != null)
+            merge(parent, index - 1, leaves);
+    }
+
+    private static void borrowFromRight(Inner parent, int index, Leaf child, Leaf right) {
+        child.keys[child.size++] = right.keys[0];
+        System.arraycopy(right.keys, 1, right.keys, 0, --right.size);
+        parent.keys[index] = right.keys[0];
+    }
+
+    private static void borrowFromLeft(Inner parent, int index, Leaf child, Leaf left) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size++);
+        child.keys[0] = left.keys[--left.size];
+        parent.keys[index - 1] = child.keys[0];
+    }
+
+    // O separador do pai desce para o filho e a primeira chave do irmão sobe no lugar dele
+    private static void borrowFromRight(Inner parent, int index, Inner child, Inner right) {
+        child.keys[child.size - 1] = parent.keys[index];
+        child.children[child.size++] = right.children[0];
+        parent.keys[index] = right.keys[0];
+        System.arraycopy(right.keys, 1, right.keys, 0, right.size - 2);
+        System.arraycopy(right.children, 1, right.children, 0, right.size - 1);
+        right.children[--right.size] = null;
+    }
+
+    private static void borrowFromLeft(Inner parent, int index, Inner child, Inner left) {
+        System.arraycopy(child.keys, 0, child.keys, 1, child.size - 1);
+        System.arraycopy(child.children, 0, child.children, 1, child.size);
+        child.keys[0] = parent.keys[index - 1];
+        child.children[0] = left.children[left.size - 1];
+        child.size++;
+        parent.keys[index - 1] = left.keys[left.size - 2];
+        left.children[--left.size] = null;
+    }
+
+    // Junta os filhos index e index + 1 no primeiro e tira o segundo (e o separador entre eles) do pai
+    private static void merge(Inner parent, int index, boolean leaves) {
+        if (leaves) {
+            Leaf left = (Leaf) parent.children[index];
+            Leaf right = (Leaf) parent.children[index + 1];
+            System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+            left.size += right.size;
+            left.next = right.next;
+        } else {
+            Inner left = (Inner) parent.children[index];
+            Inner right = (Inner) parent.children[index + 1];
+            left.keys[left.size - 1] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.size, right.size - 1);
+            System.arraycopy(right.children, 0, left.children, left.size, right.size);
+            left.size += right.size;
+        }
+
+        System.arraycopy(parent.keys, index + 1, parent.keys, index, parent.size - index - 2);
+        System.arraycopy(parent.children, index + 2, parent.children, index + 1, parent.size - index - 2);
+        parent.children[--parent.size] = null;
+    }
+
+    /** Verificar se um elemento está armazenado na árvore ou não */
+    @Override
+    public boolean contains(int value) {
+        Leaf leaf = findLeaf(value);
+        int position = lowerBound(leaf.keys, leaf.size, value);
+        return position < leaf.size && leaf.keys[position] == value;
+    }
+
+    // Folha onde o valor está ou entraria
+    private Leaf findLeaf(int value) {
+        Node node = root;
+        for (int level = levels; level > 1; level--) {
+            Inner inner = (Inner) node;
+            node = inner.children[childIndex(inner, value)];
+        }
+        return (Leaf) node;
+    }
+
+    private Leaf firstLeaf() {
+        Node node = root;
+        for (int level = levels; level > 1; level--)
+            node = ((Inner) node).children[0];
+        return (Leaf) node;
+    }
+
+    // Filho que pode conter o valor: quantidade de separadores <= valor
+    private static int childIndex(Inner inner, int value) {
+        int low = 0;
+        int high = inner.size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (inner.keys[mid] <= value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    // Primeira posição de keys[0, size) com valor >= value
+    private static int lowerBound(int[] keys, int size, int value) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid] < value)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /** Verificar quantos elementos tem na árvore */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /** Quantidade de níveis abaixo da raiz (0 quando a raiz é a única folha, -1 para a árvore vazia) */
+    @Override
+    public int height() {
+        return count == 0 ? -1 : levels - 1;
+    }
+
+    /** Limpar o conteúdo da árvore */
+    @Override
+    public void clear() {
+        root = new Leaf();
+        levels = 1;
+        count = 0;
+    }
+
+    /** Percorrer os elementos em ordem crescente pelas folhas encadeadas */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Leaf leaf = firstLeaf();
+            private int position;
+
+            @Override
+            public boolean hasNext() {
+                while (leaf != null && position == leaf.size) {
+                    leaf = leaf.next;
+                    position = 0;
+                }
+                return leaf != null;
+            }
+
+            @Override
+            public int nextInt() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                return leaf.keys[position++];
+            }
+        };
+    }
+
+    /** Retornar os elementos da árvore em uma lista usando caminhamento central */
+    public ArrayList<Integer> inOrder() {
+        ArrayList<Integer> erd = new ArrayList<>(count);
+        for (Leaf leaf = firstLeaf(); leaf != null; leaf = leaf.next)
+            for (int i = 0; i < leaf.size; i++)
+                erd.add(leaf.keys[i]);
+        return erd;
+    }
+
+    /** Somar os valores no intervalo [start, end), andando pelas folhas a partir da primeira do intervalo */
+    @Override
+    public long sumBetween(int start, int end) {
+        long sum = 0;
+        if (start >= end)
+            return sum;
+        Leaf leaf = findLeaf(start);
+        for (int i = lowerBound(leaf.keys, leaf.size, start); leaf != null; leaf = leaf.next, i = 0) {
+            for (; i < leaf.size; i++) {
+                int key = leaf.keys[i];
+                if (key >= end)
+                    return sum;
+                sum += key;
+            }
+        }
+        return sum;
+    }
+
+    /** Contar os valores no intervalo [start, end), somando trechos inteiros de cada folha */
+    @Override
+    public int countBetween(int start, int end) {
+        int total = 0;
+        if (start >= end)
+            return total;
+        Leaf leaf = findLeaf(start);
+        for (int i = lowerBound(leaf.keys, leaf.size, start); leaf != null; leaf = leaf.next, i = 0) {
+            int stop = lowerBound(leaf.keys, leaf.size, end);
+            total += Math.max(0, stop - i);
+            if (stop < leaf.size)
+                return total;
+        }
+        return total;
+    }
+
+    /** Memória retida pela árvore: cada nodo com os seus vetores (cheios ou não), mais os vetores da divisão */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        long leaf = MemoryFootprint.instanceSize(Leaf.class) + MemoryFootprint.arraySize(int.class, LEAF_CAPACITY);
+        long inner = MemoryFootprint.instanceSize(Inner.class) + MemoryFootprint.arraySize(int.class, INNER_CAPACITY - 1)
+                + MemoryFootprint.arraySize(Node.class, INNER_CAPACITY);
+        long bytes = MemoryFootprint.instanceSize(BPlusTree.class) + MemoryFootprint.arraySize(int.class, splitKeys.length)
+                + MemoryFootprint.arraySize(Node.class, splitChildren.length);
+
+        // conta os nodos nível a nível; no último nível estão as folhas
+        Node[] level = {root};
+        for (int depth = levels; depth > 1; depth--) {
+            bytes += level.length * inner;
+            int children = 0;
+            for (Node node : level)
+                children += node.size;
+            Node[] next = new Node[children];
+            children = 0;
+            for (Node node : level) {
+                System.arraycopy(((Inner) node).children, 0, next, children, node.size);
+                children += node.size;
+            }
+            level = next;
+        }
+        bytes += level.length * leaf;
+        return new MemoryFootprint("BPlusTree", count, bytes);
+    }
+
+    // size = quantidade de chaves (folha) ou de filhos (nodo interno)
+    private abstract static class Node {
+        int size;
+    }
+
+    private static final class Leaf extends Node {
+        final int[] keys = new int[LEAF_CAPACITY];
+        Leaf next;
+    }
+
+    private static final class Inner extends Node {
+        final int[] keys = new int[INNER_CAPACITY - 1];
+        final Node[] children = new Node[INNER_CAPACITY];
+    }
+
+    // Compara com a AVLTree em chaves aleatórias: java BPlusTree [quantidade de chaves]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        int[] keys = new Random(42).ints(n).toArray();
+        int[] ranges = new Random(7).ints(1_000).toArray();
+        // cada intervalo cobre ~0,1% do espaço de int
+        long width = (1L << 32) / 1_000;
+
+        System.out.printf("%d chaves aleatórias (ns/op)%n", n);
+        System.out.printf("%-12s %8s %8s %12s %8s%n", "engine", "add", "contains", "sumBetween", "remove");
+        for (int round = 0; round < 2; round++) {
+            for (TreeEngine engine : new TreeEngine[]{TreeEngine.AVL, TreeEngine.B_PLUS}) {
+                IntOrderedSet set = engine.create();
+                long start = System.nanoTime();
+                for (int key : keys)
+                    set.add(key);
+                double add = (System.nanoTime() - start) / (double) n;
+
+                start = System.nanoTime();
+                int found = 0;
+                for (int key : keys)
+                    if (set.contains(key))
+                        found++;
+                double contains = (System.nanoTime() - start) / (double) n;
+
+                start = System.nanoTime();
+                long sum = 0;
+                for (int from : ranges)
+                    sum += set.sumBetween(from, (int) Math.min(Integer.MAX_VALUE, from + width));
+                double range = (System.nanoTime() - start) / (double) ranges.length;
+
+                start = System.nanoTime();
+                for (int key : keys)
+                    set.remove(key);
+                double remove = (System.nanoTime() - start) / (double) n;
+
+                // a última rodada é a medida; a primeira só aquece o JIT
+                if (round == 1)
+                    System.out.printf("%-12s %8.0f %8.0f %12.0f %8.0f   (%d, %d)%n", engine.label, add, contains, range, remove, found, sum);
+            }
+        }
+    }
+}
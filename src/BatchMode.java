@@ -0,0 +1,279 @@
+// Imports
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * CLASSE BatchMode
+ * Modo de comandos não interativo: lê uma sequência de operações de um arquivo (ou da entrada padrão),
+ * executa num motor de IntOrderedSet e escreve um resultado por linha. No fim mostra as ops/s no stderr.
+ *
+ * Uso: java Main [--engine=avl|bst|red_black|b_plus] [--quiet] [arquivo | -]
+ * (ou java AVLTree ..., que usa a AVL por padrão). Sem arquivo, ou com "-", lê da entrada padrão.
+ *
+ * Operações, uma por linha (linhas vazias e o que vem depois de # são ignorados):
+ *   add V         -> true / false (já existia)
+ *   remove V      -> true / false (não existia)
+ *   contains V    -> true / false
+ *   sum A B       -> soma dos valores em [A, B)
+ *   rank V        -> posição de V em ordem crescente (a partir de 0), ou -1 se não estiver no conjunto
+ *
+ * Uma linha inválida interrompe a execução: os resultados anteriores são escritos, a mensagem (com o
+ * número da linha) vai para o stderr e o código de saída é 1.
+ *
+ * A entrada é lida em blocos de 64 KB por um canal e interpretada byte a byte (sem Scanner, sem criar
+ * String por token); a saída passa toda por um único BufferedWriter. Com --quiet só o resumo é mostrado.
+ */
+public class BatchMode {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final IntOrderedSet set;
+    private final Writer out;
+    private final boolean quiet;
+    // dígitos do número sendo escrito, do fim para o começo
+    private final char[] digits = new char[20];
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] bytes = buffer.array();
+    private int position;
+    private int limit;
+    private int line = 1;
+    // nome da operação atual
+    private final byte[] word = new byte[16];
+    private int wordLength;
+
+    BatchMode(IntOrderedSet set, ReadableByteChannel channel, Writer out, boolean quiet) {
+        this.set = set;
+        this.channel = channel;
+        this.out = out;
+        this.quiet = quiet;
+    }
+
+    public static void main(String[] args) {
+        run(TreeEngine.configured(), args);
+    }
+
+    /** Executar o modo de comandos com os argumentos da linha de comando, usando o motor padrão informado */
+    public static void run(TreeEngine defaultEngine, String[] args) {
+        TreeEngine engine = defaultEngine;
+        boolean quiet = false;
+        String file = "-";
+        for (String arg : args) {
+            if (arg.startsWith("--engine="))
+                engine = TreeEngine.valueOf(arg.substring("--engine=".length()).trim().toUpperCase(Locale.ROOT));
+            else if (arg.equals("--quiet") || arg.equals("-q"))
+                quiet = true;
+            else
+                file = arg;
+        }
+
+        Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.US_ASCII), BUFFER_SIZE);
+        try (ReadableByteChannel channel = file.equals("-") ? Channels.newChannel(System.in) : FileChannel.open(Path.of(file))) {
+            BatchMode batch = new BatchMode(engine.create(), channel, out, quiet);
+            long start = System.nanoTime();
+            long operations;
+            try {
+                operations = batch.execute();
+            } catch (IllegalArgumentException e) {
+                // os resultados das linhas anteriores saem antes do erro, para quem chamou saber até onde foi
+                out.flush();
+                System.err.println(e.getMessage());
+                System.exit(1);
+                return;
+            }
+            out.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.err.printf("%d operações em %.3f s (%.0f ops/s) com %s, %d elementos no fim%n",
+                    operations, seconds, operations / Math.max(seconds, 1e-9), engine.label, batch.set.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Executar todas as operações da entrada e retornar quantas foram */
+    long execute() throws IOException {
+        long operations = 0;
+        while (nextWord()) {
+            switch (operation()) {
+                case 'a' -> writeBoolean(set.add(readInt()));
+                case 'r' -> writeBoolean(set.remove(readInt()));
+                case 'c' -> writeBoolean(set.contains(readInt()));
+                case 's' -> {
+                    int start = readInt();
+                    writeLong(set.sumBetween(start, readInt()));
+                }
+                case 'k' -> {
+                    int value = readInt();
+                    writeLong(set.contains(value) ? set.countBetween(Integer.MIN_VALUE, value) : -1);
+                }
+            }
+            endOfLine();
+            operations++;
+        }
+        return operations;
+    }
+
+    // Identifica a palavra lida: a(dd), r(emove), c(ontains), s(um), (ran)k
+    private char operation() {
+        if (matches("add"))
+            return 'a';
+        if (matches("remove"))
+            return 'r';
+        if (matches("contains"))
+            return 'c';
+        if (matches("sum"))
+            return 's';
+        if (matches("rank"))
+            return 'k';
+        throw error("operação desconhecida \"" + new String(word, 0, wordLength, StandardCharsets.US_ASCII) + "\"");
+    }
+
+    private boolean matches(String name) {
+        if (name.length() != wordLength)
+            return false;
+        for (int i = 0; i < wordLength; i++)
+            if (word[i] != name.charAt(i))
+                return false;
+        return true;
+    }
+
+    // ------------- Leitura ------------- //
+
+    // Próximo byte sem consumir, ou -1 no fim da entrada
+    private int peek() throws IOException {
+        while (position == limit) {
+            buffer.clear();
+            int read = channel.read(buffer);
+            if (read < 0)
+                return -1;
+            position = 0;
+            limit = read;
+        }
+        // sem o & 0xFF um byte acima de 0x7F (UTF-8 num comentário, por exemplo) viraria negativo, como o fim
+        return bytes[position] & 0xFF;
+    }
+
+    // Pula linhas vazias e comentários e lê o nome da próxima operação; false no fim da entrada
+    private boolean nextWord() throws IOException {
+        int c;
+        while (true) {
+            c = peek();
+            if (c == '#')
+                skipLine();
+            else if (c == '\n') {
+                line++;
+                position++;
+            } else if (c == ' ' || c == '\t' || c == '\r')
+                position++;
+            else
+                break;
+        }
+        if (c < 0)
+            return false;
+
+        wordLength = 0;
+        while (c > ' ' && c != '#') {
+            if (wordLength == word.length)
+                throw error("operação desconhecida");
+            // aceita maiúsculas
+            word[wordLength++] = (byte) (c | 0x20);
+            position++;
+            c = peek();
+        }
+        return true;
+    }
+
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = peek()) >= 0 && c != '\n')
+            position++;
+    }
+
+    private void skipSpaces() throws IOException {
+        int c;
+        while ((c = peek()) == ' ' || c == '\t')
+            position++;
+    }
+
+    private int readInt() throws IOException {
+        skipSpaces();
+        int c = peek();
+        boolean negative = c == '-';
+        if (c == '-' || c == '+') {
+            position++;
+            c = peek();
+        }
+        if (c < '0' || c > '9')
+            throw error("número esperado");
+
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            if (value > (long) Integer.MAX_VALUE + 1)
+                throw error("número fora do intervalo de int");
+            position++;
+            c = peek();
+        }
+        value = negative ? -value : value;
+        if (value > Integer.MAX_VALUE)
+            throw error("número fora do intervalo de int");
+        return (int) value;
+    }
+
+    // Depois dos argumentos só pode vir espaço, comentário ou o fim da linha
+    private void endOfLine() throws IOException {
+        skipSpaces();
+        int c = peek();
+        if (c == '#')
+            skipLine();
+        else if (c == '\r')
+            position++;
+        else if (c >= 0 && c != '\n')
+            throw error("argumento a mais");
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Linha " + line + ": " + message);
+    }
+
+    // ------------- Escrita ------------- //
+
+    private void writeBoolean(boolean value) throws IOException {
+        if (!quiet)
+            out.write(value ? "true\n" : "false\n");
+    }
+
+    // Escreve o número sem criar String
+    private void writeLong(long value) throws IOException {
+        if (quiet)
+            return;
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            out.write('\n');
+            return;
+        }
+        boolean negative = value < 0;
+        long rest = Math.abs(value);
+        int start = digits.length;
+        do {
+            digits[--start] = (char) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative)
+            digits[--start] = '-';
+        out.write(digits, start, digits.length - start);
+        out.write('\n');
+    }
+}
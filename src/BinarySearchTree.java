@@ -1,20 +1,39 @@
 // Imports
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Queue;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
 
 /**
  * CLASSE BinarySearchTree
  * Trabalhando com árvore binária de pesquisa
  */
 
-class BinarySearchTree {
+class BinarySearchTree implements IntOrderedSet {
+    // a partir deste tamanho o treeInfo calcula as estatísticas em paralelo
+    private static final int PARALLEL_STATS_THRESHOLD = 1 << 20;
+
     private Node root;
 
     public BinarySearchTree() {
         root = null;
     }
 
-    public void add(Integer v) {
+    // Valores repetidos também são inseridos (vão para a esquerda), então sempre retorna true
+    @Override
+    public boolean add(int v) {
         Node prev, current;
 
         // cria um novo nodo
@@ -24,23 +43,36 @@ class BinarySearchTree {
         node.element = v;
         node.right = null;
         node.left = null;
+        node.count = 1;
+        node.sum = v;
 
         // se a raiz está nula, a árvore está vazia
-        if (root == null)
+        if (root == null) {
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.BST.search(0, 0);
             root = node;
+            return true;
+        }
 
         else {
             current = root;
+            int visited = 0;
             // percorre a árvore
             while (true) {
                 prev = current;
+                visited++;
+                // o novo nodo vai ficar na subárvore do atual, então atualiza os agregados
+                prev.count++;
+                prev.sum += v;
                 // ir para esquerda
                 if (v <= current.element) {
                     current = current.left;
                     if (current == null) {
                         // insere na subárvore da esquerda
                         prev.left = node;
-                        return;
+                        if (TreeMetrics.ENABLED)
+                            TreeMetrics.BST.search(visited, visited);
+                        return true;
                     }
                 }
                 // ir para direita
@@ -49,21 +81,33 @@ class BinarySearchTree {
                     if (current == null) {
                         // insere na subárvore da direita
                         prev.right = node;
-                        return;
+                        if (TreeMetrics.ENABLED)
+                            TreeMetrics.BST.search(visited, visited);
+                        return true;
                     }
                 }
             }
         }
     }
 
-    public Node contains(Integer v) {
+    @Override
+    public boolean contains(int v) {
+        return findNode(v) != null;
+    }
+
+    // Retorna o nodo com o valor, ou null se não encontrar
+    public Node findNode(int v) {
         // se arvore vazia
-        if (root == null)
+        if (root == null) {
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.BST.search(0, 0);
             return null;
+        }
 
         // começa a procurar desde raiz
         Node current = root;
-        // enquanto nao encontrou
+        int visited = 1;
+        // enquanto nao encontrou (comparação de int, por valor)
         while (current.element != v) {
             if (v < current.element)
                 current = current.left; // caminha para esquerda
@@ -71,22 +115,33 @@ class BinarySearchTree {
                 current = current.right; // caminha para direita
 
             // encontrou uma folha -> sai
-            if (current == null)
+            if (current == null) {
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.BST.search(visited, 2 * visited);
                 return null;
+            }
+            visited++;
         }
 
         // terminou o laço while e chegou aqui é pq encontrou item
+        if (TreeMetrics.ENABLED)
+            TreeMetrics.BST.search(visited, 2 * visited - 1);
         return current;
     }
 
-    public boolean remove(Integer v) {
+    @Override
+    public boolean remove(int v) {
         // se arvore vazia
-        if (root == null)
+        if (root == null) {
+            if (TreeMetrics.ENABLED)
+                TreeMetrics.BST.search(0, 0);
             return false;
+        }
 
         Node current = root;
         Node father = root;
         boolean child_left = true;
+        int visited = 1;
 
         // buscando o valor
         while (current.element != v) {
@@ -106,9 +161,22 @@ class BinarySearchTree {
                 child_left = false;
             }
             // encontrou uma folha -> sai
-            if (current == null)
+            if (current == null) {
+                if (TreeMetrics.ENABLED)
+                    TreeMetrics.BST.search(visited, 2 * visited);
                 return false;
+            }
+            visited++;
+        }
+        if (TreeMetrics.ENABLED)
+            TreeMetrics.BST.search(visited, 2 * visited - 1);
+
+        // os ancestrais do nodo removido perdem o valor nos agregados
+        for (Node ancestor = root; ancestor != current; ancestor = v < ancestor.element ? ancestor.left : ancestor.right) {
+            ancestor.count--;
+            ancestor.sum -= current.element;
         }
+
         // Se nao possui nenhum filho (é uma folha), elimine-o
         if (current.left == null && current.right == null) {
             // se raiz
@@ -161,6 +229,9 @@ class BinarySearchTree {
             // acertando o ponteiro a esquerda do sucessor agora que ele assumiu
             successor.left = current.left;
             // a posição correta na arvore
+            // o sucessor passa a ter a subárvore do nodo removido, menos o próprio nodo removido
+            successor.count = current.count - 1;
+            successor.sum = current.sum - current.element;
         }
         return true;
     }
@@ -169,7 +240,9 @@ class BinarySearchTree {
     public Node node_successor(Node node) {
         Node father_successor = node;
         Node successor = node;
-        Node current = node.left;
+        Node current = node.right;
+
+        int visited = 0;
 
         // enquanto nao chegar no nodo mais a esquerda
         while (current != null) {
@@ -177,9 +250,17 @@ class BinarySearchTree {
             successor = current;
             // caminha para a esquerda
             current = current.left;
+            visited++;
         }
+        if (TreeMetrics.ENABLED)
+            TreeMetrics.BST.successorSwap(visited);
         // se sucessor nao é o filho a direita do Nó que deverá ser eliminado
         if (successor != node.right) {
+            // os nodos entre o filho a direita e o sucessor perdem o sucessor nos agregados
+            for (Node ancestor = node.right; ancestor != successor; ancestor = ancestor.left) {
+                ancestor.count--;
+                ancestor.sum -= successor.element;
+            }
             // pai herda os filhos do sucessor que sempre serão a direita
             father_successor.left = successor.right;
             successor.right = node.right;
@@ -188,49 +269,52 @@ class BinarySearchTree {
     }
 
     void clearTree() {
+        clear();
+    }
+
+    @Override
+    public void clear() {
         root = null;
     }
 
+    @Override
+    public int size() {
+        return count(root);
+    }
+
+    // Altura da árvore inteira; -1 se estiver vazia, como nos outros motores de IntOrderedSet
+    @Override
+    public int height() {
+        return root == null ? -1 : height(root);
+    }
+
+    // Os caminhamentos usam os iteradores com pilha explícita, então não estouram a pilha da JVM
+    // mesmo quando dados ordenados transformam a árvore numa lista
     public void inOrder(Node current) {
-        if (current != null) {
-            inOrder(current.left);
-            System.out.print(current.element + " ");
-            inOrder(current.right);
-        }
+        print(new InOrderIterator(current, 0, count(current)));
     }
 
     public void preOrder(Node current) {
-        if (current != null) {
-            System.out.print(current.element + " ");
-            preOrder(current.left);
-            preOrder(current.right);
-        }
+        print(new PreOrderIterator(current));
     }
 
     public void postOrder(Node current) {
-        if (current != null) {
-            postOrder(current.left);
-            postOrder(current.right);
-            System.out.print(current.element + " ");
-        }
+        print(new PostOrderIterator(current));
     }
 
+    private static void print(PrimitiveIterator.OfInt elements) {
+        while (elements.hasNext())
+            System.out.print(elements.nextInt() + " ");
+    }
+
+    // Altura em arestas (0 para árvore vazia ou folha), em uma única passada O(n) sem recursão
     public int height(Node current) {
-        if (current == null || (current.left == null && current.right == null)) {
-            return 0;
-        } else {
-            if (height(current.left) > height(current.right))
-                return (1 + height(current.left));
-            else
-                return (1 + height(current.right));
-        }
+        return shape(current).height;
     }
 
+    // Os contadores dos nodos já guardam o tamanho de cada subárvore
     public int countNodes(Node current) {
-        if (current == null)
-            return 0;
-        else
-            return (1 + countNodes(current.left) + countNodes(current.right));
+        return count(current);
     }
 
     public Node getRoot() {
@@ -250,13 +334,34 @@ class BinarySearchTree {
     }
 
     public void treeInfo() {
-        System.out.println("Altura da arvore: " + height(root));
-        System.out.println("Quantidade de Nós: " + countNodes(root));
-        System.out.println("Nível do menor nodo: " + minNodeLevel());
-        System.out.println("Diferença entre o valor máximo e a raiz: " + diffMaxRoot());
-        System.out.println("Contagem dos nodos internos (galhos): " + countInternalNodes(root));
-        System.out.println("Soma dos valores de nodos externos (folhas): " + sumExternalNodes(root));
+        // todas as métricas saem de uma única passada pela árvore
+        TreeStats stats = stats(count(root) > PARALLEL_STATS_THRESHOLD);
+        // a altura da árvore vazia sempre foi mostrada como 0
+        System.out.println("Altura da arvore: " + Math.max(stats.height, 0));
+        System.out.println("Quantidade de Nós: " + stats.nodeCount);
+        System.out.println("Nível do menor nodo: " + stats.minLevel);
+        System.out.println("Diferença entre o valor máximo e a raiz: " + (root == null ? 0 : stats.max - root.element));
+        System.out.println("Contagem dos nodos internos (galhos): " + stats.internalNodes);
+        System.out.println("Soma dos valores de nodos externos (folhas): " + stats.leafSum);
+        System.out.println("Comprimento médio dos caminhos: " + stats.averagePathLength);
+    }
 
+    // Um Node por valor (40 bytes com compressed oops: element, count, sum e os dois filhos)
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        int nodes = count(root);
+        return new MemoryFootprint("BinarySearchTree", nodes,
+                MemoryFootprint.instanceSize(BinarySearchTree.class) + nodes * MemoryFootprint.instanceSize(Node.class));
+    }
+
+    // Estatísticas de forma da árvore em uma passada (ver TreeStats), opcionalmente com fork/join
+    public TreeStats stats(boolean parallel) {
+        return parallel ? TreeStats.ofParallel(root, NodeAccessor.BST) : TreeStats.of(root, NodeAccessor.BST);
+    }
+
+    /** Retornar os contadores de todas as BinarySearchTree (comparações, profundidade das buscas), ver TreeMetrics */
+    public static TreeMetrics.Snapshot metrics() {
+        return TreeMetrics.BST.snapshot();
     }
 
     public void printTree() {
@@ -268,6 +373,20 @@ class BinarySearchTree {
         }
     }
 
+    // Desenha só a subárvore do valor informado, até maxDepth níveis abaixo dele, direto no System.out
+    public void printSubtree(int value, int maxDepth) {
+        Node node = findNode(value);
+        if (node == null) {
+            System.out.println("Elemento não encontrado!");
+            return;
+        }
+        try {
+            new TreeRenderer<>(NodeAccessor.BST).render(node, maxDepth, System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     // ------------- Métodos Adicionados ------------- //
 
     public int minNodeLevel() {
@@ -306,27 +425,60 @@ class BinarySearchTree {
     }
 
     public int countInternalNodes(Node node) {
-        if (node == null)
-            return 0;
+        // os nodos internos são todos os que não são folha
+        return count(node) - shape(node).leaves;
+    }
 
-        //verifica se é folha
-        if (node.left == null && node.right == null)
-            return 0;
+    public int sumExternalNodes(Node node) {
+        return shape(node).leafSum;
+    }
 
-        //conta o nodo atual e os anteriores
-        return 1 + countInternalNodes(node.left) + countInternalNodes(node.right);
+    // Altura e folhas de uma subárvore, medidas juntas por shape()
+    private static class Shape {
+        int height;
+        int leaves;
+        int leafSum;
     }
 
-    public int sumExternalNodes(Node node) {
+    /*
+     * Pré-ordem com pilha explícita de nodos e profundidades, como o PreOrderIterator: O(n) em qualquer
+     * formato de árvore e sem recursão. A pilha fica no heap em vez de alterar ponteiros da árvore, então
+     * o height() continua sendo só leitura (um contains rodando junto nunca vê um ponteiro temporário).
+     */
+    private static Shape shape(Node node) {
+        Shape shape = new Shape();
         if (node == null)
-            return 0;
-
-        //verifica se é folha
-        if (node.left == null && node.right == null)
-            return node.element;
+            return shape;
+        Node[] stack = new Node[16];
+        int[] depths = new int[16];
+        int top = 0;
+        stack[0] = node;
+
+        while (top >= 0) {
+            Node current = stack[top];
+            int depth = depths[top--];
+            shape.height = Math.max(shape.height, depth);
+            if (current.left == null && current.right == null) {
+                shape.leaves++;
+                shape.leafSum += current.element;
+                continue;
+            }
 
-        //retorna retorna a soma dos nodos folha
-        return sumExternalNodes(node.left) + sumExternalNodes(node.right);
+            if (top + 2 >= stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            // empilha a direita antes para a esquerda sair primeiro
+            if (current.right != null) {
+                stack[++top] = current.right;
+                depths[top] = depth + 1;
+            }
+            if (current.left != null) {
+                stack[++top] = current.left;
+                depths[top] = depth + 1;
+            }
+        }
+        return shape;
     }
 
     public void breadthFirstOrder() {
@@ -355,31 +507,352 @@ class BinarySearchTree {
         }
     }
 
-    public int sumBetween(int start, int end) {
-        return sumBetween(root, start, end);
+    // ------------- Percursos sob demanda ------------- //
+    // Os iteradores usam pilha/fila explícita (sem recursão e sem boxing), então funcionam mesmo com a
+    // árvore degenerada; a árvore não deve ser alterada enquanto um deles estiver em uso.
+
+    // Caminhamento central (in-order) sob demanda
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return inOrderIterator();
     }
 
-    private int sumBetween(Node node, int start, int end) {
-        if (node == null)
+    public PrimitiveIterator.OfInt inOrderIterator() {
+        return new InOrderIterator(root, 0, count(root));
+    }
+
+    // Pré-ordem (pre-order) sob demanda
+    public PrimitiveIterator.OfInt preOrderIterator() {
+        return new PreOrderIterator(root);
+    }
+
+    // Pós-ordem (post-order) sob demanda
+    public PrimitiveIterator.OfInt postOrderIterator() {
+        return new PostOrderIterator(root);
+    }
+
+    // Largura (breadth-first) sob demanda
+    public PrimitiveIterator.OfInt breadthFirstIterator() {
+        return new BreadthFirstIterator(root);
+    }
+
+    // Caminhamento central divisível em partes para percorrer em paralelo
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return new InOrderIterator(root, 0, count(root));
+    }
+
+    // Elementos em ordem crescente como IntStream (use parallel() para dividir entre núcleos)
+    @Override
+    public IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    // Caminhamento central das posições [from, to); divide pela posição do meio usando os contadores dos nodos
+    private static class InOrderIterator implements PrimitiveIterator.OfInt, Spliterator.OfInt {
+        private final Node root;
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+        private int from;
+        private final int to;
+        private boolean started;
+
+        InOrderIterator(Node root, int from, int to) {
+            this.root = root;
+            this.from = from;
+            this.to = to;
+        }
+
+        // empilha o caminho até a posição inicial; o topo da pilha é sempre o próximo elemento
+        private void start() {
+            started = true;
+            int k = from;
+            Node node = from < to ? root : null;
+            while (node != null) {
+                int leftCount = count(node.left);
+                if (k < leftCount) {
+                    stack.push(node);
+                    node = node.left;
+                } else if (k == leftCount) {
+                    stack.push(node);
+                    node = null;
+                } else {
+                    k -= leftCount + 1;
+                    node = node.right;
+                }
+            }
+        }
+
+        public boolean hasNext() {
+            return from < to;
+        }
+
+        public int nextInt() {
+            if (from >= to)
+                throw new NoSuchElementException();
+            if (!started)
+                start();
+
+            Node node = stack.pop();
+            // o próximo é o menor da subárvore direita
+            for (Node child = node.right; child != null; child = child.left)
+                stack.push(child);
+            from++;
+            return node.element;
+        }
+
+        public boolean tryAdvance(IntConsumer action) {
+            if (from >= to)
+                return false;
+            action.accept(nextInt());
+            return true;
+        }
+
+        public void forEachRemaining(IntConsumer action) {
+            while (from < to)
+                action.accept(nextInt());
+        }
+
+        // herdado das duas interfaces; delega para a versão sem boxing
+        public void forEachRemaining(Consumer<? super Integer> action) {
+            forEachRemaining(action instanceof IntConsumer ? (IntConsumer) action : (IntConsumer) action::accept);
+        }
+
+        public Spliterator.OfInt trySplit() {
+            int mid = (from + to) >>> 1;
+            // depois de começar a percorrer, a pilha já aponta para a posição atual
+            if (started || mid <= from)
+                return null;
+            InOrderIterator prefix = new InOrderIterator(root, from, mid);
+            from = mid;
+            return prefix;
+        }
+
+        // ordem natural dos int
+        public Comparator<? super Integer> getComparator() {
+            return null;
+        }
+
+        public long estimateSize() {
+            return to - from;
+        }
+
+        // a árvore aceita valores repetidos, então não é DISTINCT
+        public int characteristics() {
+            return ORDERED | SORTED | NONNULL | SIZED | SUBSIZED;
+        }
+    }
+
+    private static class PreOrderIterator implements PrimitiveIterator.OfInt {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+        PreOrderIterator(Node root) {
+            if (root != null)
+                stack.push(root);
+        }
+
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        public int nextInt() {
+            if (stack.isEmpty())
+                throw new NoSuchElementException();
+            Node node = stack.pop();
+            // empilha a direita antes para a esquerda sair primeiro
+            if (node.right != null)
+                stack.push(node.right);
+            if (node.left != null)
+                stack.push(node.left);
+            return node.element;
+        }
+    }
+
+    private static class PostOrderIterator implements PrimitiveIterator.OfInt {
+        private final ArrayDeque<Node> stack = new ArrayDeque<>();
+
+        PostOrderIterator(Node root) {
+            pushLeftPath(root);
+        }
+
+        // desce pela esquerda (ou pela direita quando não há esquerda) até uma folha
+        private void pushLeftPath(Node node) {
+            while (node != null) {
+                stack.push(node);
+                node = node.left != null ? node.left : node.right;
+            }
+        }
+
+        public boolean hasNext() {
+            return !stack.isEmpty();
+        }
+
+        public int nextInt() {
+            if (stack.isEmpty())
+                throw new NoSuchElementException();
+            Node node = stack.pop();
+            // se voltou da esquerda e o pai tem direita, a próxima é a primeira da subárvore direita
+            Node parent = stack.peek();
+            if (parent != null && parent.left == node && parent.right != null)
+                pushLeftPath(parent.right);
+            return node.element;
+        }
+    }
+
+    private static class BreadthFirstIterator implements PrimitiveIterator.OfInt {
+        private final ArrayDeque<Node> queue = new ArrayDeque<>();
+
+        BreadthFirstIterator(Node root) {
+            if (root != null)
+                queue.add(root);
+        }
+
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        public int nextInt() {
+            Node node = queue.poll();
+            if (node == null)
+                throw new NoSuchElementException();
+            if (node.left != null)
+                queue.add(node.left);
+            if (node.right != null)
+                queue.add(node.right);
+            return node.element;
+        }
+    }
+
+    // Soma dos valores no intervalo [start, end), usando os agregados dos nodos em O(altura)
+    @Override
+    public long sumBetween(int start, int end) {
+        if (start >= end)
+            return 0;
+        return sumLessThan(end) - sumLessThan(start);
+    }
+
+    // Quantidade de valores no intervalo [start, end) em O(altura)
+    @Override
+    public int countBetween(int start, int end) {
+        if (start >= end)
             return 0;
+        return countLessThan(end) - countLessThan(start);
+    }
+
+    // Menor valor no intervalo [start, end), ou null se não houver nenhum
+    public Integer minBetween(int start, int end) {
+        Integer min = null;
+        Node current = root;
+
+        while (current != null) {
+            // candidato: maior ou igual ao início, então procura um menor à esquerda
+            if (current.element >= start) {
+                min = current.element;
+                current = current.left;
+            } else
+                current = current.right;
+        }
 
-        //inicializa a variável sum
-        int sum = 0;
+        return min != null && min < end ? min : null;
+    }
 
-        //se nodo maior ou igual ao elemento inicial inserido no parâmetro e menor que o final,
-        //sum recebe o valor de sum + valor do nodo atual
-        if (node.element >= start && node.element < end)
-            sum += node.element;
+    // Maior valor no intervalo [start, end), ou null se não houver nenhum
+    public Integer maxBetween(int start, int end) {
+        Integer max = null;
+        Node current = root;
 
-        //se o nodo atual for maior que o inicial, continua percorrendo o lado esquerdo
-        if (node.element > start)
-            sum += sumBetween(node.left, start, end);
+        while (current != null) {
+            // candidato: menor que o fim, então procura um maior à direita
+            if (current.element < end) {
+                max = current.element;
+                current = current.right;
+            } else
+                current = current.left;
+        }
 
-        //se o nodo atual for menor que o final, continua percorrendo o lado direito
-        if (node.element < end)
-            sum += sumBetween(node.right, start, end);
+        return max != null && max >= start ? max : null;
+    }
 
-        //retorna o valor que está em sum neste momento
+    // Soma de todos os valores menores que o limite
+    private long sumLessThan(int limit) {
+        long sum = 0;
+        Node current = root;
+
+        while (current != null) {
+            // o nodo e toda a subárvore esquerda estão abaixo do limite
+            if (current.element < limit) {
+                sum += current.element + sum(current.left);
+                current = current.right;
+            } else
+                current = current.left;
+        }
         return sum;
     }
+
+    // Quantidade de valores menores que o limite
+    private int countLessThan(int limit) {
+        int count = 0;
+        Node current = root;
+
+        while (current != null) {
+            if (current.element < limit) {
+                count += 1 + count(current.left);
+                current = current.right;
+            } else
+                current = current.left;
+        }
+        return count;
+    }
+
+    private static long sum(Node node) {
+        return node == null ? 0 : node.sum;
+    }
+
+    private static int count(Node node) {
+        return node == null ? 0 : node.count;
+    }
+
+    /*
+     * Mede tempo e bytes alocados por operação com chaves fora do cache de Integer (-128..127):
+     * java BinarySearchTree [quantidade de chaves]
+     *
+     * Com o element como Integer cada add alocava o Node e mais um Integer (56 bytes por add com
+     * compressed oops); com int sobra só o Node (40 bytes), e contains/remove continuam sem alocar.
+     */
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = new Random(42).ints(n, 1_000, Integer.MAX_VALUE).toArray();
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        System.out.printf("%d chaves aleatórias%n", n);
+        System.out.printf("%-9s %10s %10s%n", "op", "ns/op", "bytes/op");
+        // a última rodada é a medida; as anteriores só aquecem o JIT
+        for (int round = 0; round < 3; round++) {
+            BinarySearchTree tree = new BinarySearchTree();
+            long[] nanos = new long[3];
+            long[] bytes = new long[3];
+            int found = 0;
+            for (int op = 0; op < 3; op++) {
+                long allocated = threads.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                for (int key : keys) {
+                    if (op == 0)
+                        tree.add(key);
+                    else if (op == 1 && tree.contains(key))
+                        found++;
+                    else if (op == 2)
+                        tree.remove(key);
+                }
+                nanos[op] = System.nanoTime() - start;
+                bytes[op] = threads.getThreadAllocatedBytes(threadId) - allocated;
+            }
+
+            if (round == 2) {
+                String[] names = {"add", "contains", "remove"};
+                for (int op = 0; op < 3; op++)
+                    System.out.printf("%-9s %10.0f %10.1f%n", names[op], (double) nanos[op] / n, (double) bytes[op] / n);
+                System.out.printf("encontrados: %d de %d%n", found, n);
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,320 @@
+// Imports
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * CLASSE CompactAVLTree
+ * Árvore AVL com nodos compactos, mais um motor de IntOrderedSet: cada nodo guarda só o valor, os dois
+ * filhos e o fator de balanceamento num byte (-1, 0 ou +1), em vez de altura, tamanho e época em int.
+ *
+ * Com compressed oops o nodo tem 12 (cabeçalho) + 4 (element) + 1 (balance) + 2 x 4 (left/right) = 25
+ * -> 32 bytes, contra 40 do AVLTree.Node (ver memoryFootprint). Em troca não há snapshot nem
+ * rank/select, e o countBetween percorre o intervalo em vez de usar os tamanhos das subárvores.
+ *
+ * O add e o remove são iterativos: guardam o caminho e o lado escolhido em cada nodo e sobem ajustando
+ * os fatores, parando assim que a altura de uma subárvore não muda.
+ */
+public class CompactAVLTree implements IntOrderedSet {
+    // altura máxima de uma AVL com até 2^31 elementos é 45, então 64 posições sempre bastam
+    private static final int MAX_HEIGHT = 64;
+
+    private Node root;
+    private int count;
+    // caminho da raiz até o nó alterado e o lado seguido em cada um (true = direita)
+    private final Node[] path = new Node[MAX_HEIGHT];
+    private final boolean[] wentRight = new boolean[MAX_HEIGHT];
+
+    /** Adicionar elementos na árvore (retorna false se o valor já existia) */
+    @Override
+    public boolean add(int value) {
+        if (root == null) {
+            root = new Node(value);
+            count++;
+            return true;
+        }
+
+        int depth = 0;
+        Node current = root;
+        while (current != null) {
+            if (value == current.element)
+                return false;
+            path[depth] = current;
+            wentRight[depth] = value > current.element;
+            current = wentRight[depth++] ? current.right : current.left;
+        }
+
+        Node node = new Node(value);
+        if (wentRight[depth - 1])
+            path[depth - 1].right = node;
+        else
+            path[depth - 1].left = node;
+        count++;
+
+        // a subárvore de cada ancestral cresceu do lado seguido
+        for (int i = depth - 1; i >= 0; i--) {
+            Node parent = path[i];
+            parent.balance += wentRight[i] ? 1 : -1;
+            if (parent.balance == 0)
+                // o lado mais baixo alcançou o outro: a altura não mudou
+                return true;
+            if (parent.balance == 2 || parent.balance == -2) {
+                // depois da rotação a subárvore volta à altura de antes da inserção
+                replaceChild(i, rebalance(parent));
+                return true;
+            }
+        }
+        return true;
+    }
+
+    /** Remover um elemento da árvore */
+    @Override
+    public boolean remove(int value) {
+        int depth = 0;
+        Node current = root;
+        while (current != null && current.element != value) {
+            path[depth] = current;
+            wentRight[depth] = value > current.element;
+            current = wentRight[depth++] ? current.right : current.left;
+        }
+        if (current == null)
+            return false;
+
+        // com dois filhos, o sucessor (menor da subárvore direita) assume o valor e sai no lugar dele
+        if (current.left != null && current.right != null) {
+            Node target = current;
+            path[depth] = current;
+            wentRight[depth++] = true;
+            current = current.right;
+            while (current.left != null) {
+                path[depth] = current;
+                wentRight[depth++] = false;
+                current = current.left;
+            }
+            target.element = current.element;
+        }
+
+        Node child = current.left != null ? current.left : current.right;
+        if (depth == 0)
+            root = child;
+        else if (wentRight[depth - 1])
+            path[depth - 1].right = child;
+        else
+            path[depth - 1].left = child;
+        count--;
+
+        // a subárvore de cada ancestral encolheu do lado seguido
+        for (int i = depth - 1; i >= 0; i--) {
+            Node parent = path[i];
+            parent.balance += wentRight[i] ? -1 : 1;
+            if (parent.balance == 1 || parent.balance == -1)
+                // estava equilibrado: um lado diminuiu, mas a altura da subárvore não
+                return true;
+            if (parent.balance != 0) {
+                // filho do lado mais alto equilibrado: a rotação simples mantém a altura
+                boolean heightKept = (parent.balance > 0 ? parent.right : parent.left).balance == 0;
+                replaceChild(i, rebalance(parent));
+                if (heightKept)
+                    return true;
+            }
+        }
+        return true;
+    }
+
+    // Aponta o pai de path[i] (ou a raiz) para a nova raiz da subárvore
+    private void replaceChild(int i, Node node) {
+        if (i == 0)
+            root = node;
+        else if (wentRight[i - 1])
+            path[i - 1].right = node;
+        else
+            path[i - 1].left = node;
+    }
+
+    // Rotaciona um nó com fator +2 ou -2 e retorna a nova raiz da subárvore
+    private static Node rebalance(Node node) {
+        if (node.balance > 0) {
+            if (node.right.balance < 0)
+                return rotateRightLeft(node);
+            return rotateLeft(node);
+        }
+        if (node.left.balance > 0)
+            return rotateLeftRight(node);
+        return rotateRight(node);
+    }
+
+    private static Node rotateLeft(Node x) {
+        Node z = x.right;
+        x.right = z.left;
+        z.left = x;
+        // z equilibrado só acontece no remove: a subárvore mantém a altura e fica pendendo para a esquerda
+        if (z.balance == 0) {
+            x.balance = 1;
+            z.balance = -1;
+        } else {
+            x.balance = 0;
+            z.balance = 0;
+        }
+        return z;
+    }
+
+    private static Node rotateRight(Node x) {
+        Node z = x.left;
+        x.left = z.right;
+        z.right = x;
+        if (z.balance == 0) {
+            x.balance = -1;
+            z.balance = 1;
+        } else {
+            x.balance = 0;
+            z.balance = 0;
+        }
+        return z;
+    }
+
+    // Rotação dupla: o neto y (filho esquerdo do filho direito) vira a raiz
+    private static Node rotateRightLeft(Node x) {
+        Node z = x.right;
+        Node y = z.left;
+        z.left = y.right;
+        y.right = z;
+        x.right = y.left;
+        y.left = x;
+        x.balance = (byte) (y.balance > 0 ? -1 : 0);
+        z.balance = (byte) (y.balance < 0 ? 1 : 0);
+        y.balance = 0;
+        return y;
+    }
+
+    // Rotação dupla: o neto y (filho direito do filho esquerdo) vira a raiz
+    private static Node rotateLeftRight(Node x) {
+        Node z = x.left;
+        Node y = z.right;
+        z.right = y.left;
+        y.left = z;
+        x.left = y.right;
+        y.right = x;
+        x.balance = (byte) (y.balance < 0 ? 1 : 0);
+        z.balance = (byte) (y.balance > 0 ? -1 : 0);
+        y.balance = 0;
+        return y;
+    }
+
+    /** Verificar se um elemento está armazenado na árvore ou não */
+    @Override
+    public boolean contains(int value) {
+        Node current = root;
+        while (current != null) {
+            if (value == current.element)
+                return true;
+            current = value < current.element ? current.left : current.right;
+        }
+        return false;
+    }
+
+    /** Verificar quantos elementos tem na árvore */
+    @Override
+    public int size() {
+        return count;
+    }
+
+    /** Altura da árvore, descendo sempre pelo lado mais alto indicado pelos fatores, em O(log n) */
+    @Override
+    public int height() {
+        int height = -1;
+        for (Node node = root; node != null; node = node.balance < 0 ? node.left : node.right)
+            height++;
+        return height;
+    }
+
+    /** Limpar o conteúdo da árvore */
+    @Override
+    public void clear() {
+        root = null;
+        count = 0;
+        Arrays.fill(path, null);
+    }
+
+    /** Memória retida pela árvore: os nós e os vetores do caminho */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        long bytes = MemoryFootprint.instanceSize(CompactAVLTree.class)
+                + MemoryFootprint.arraySize(Node.class, path.length)
+                + MemoryFootprint.arraySize(boolean.class, wentRight.length)
+                + (long) count * MemoryFootprint.instanceSize(Node.class);
+        return new MemoryFootprint("CompactAVLTree", count, bytes);
+    }
+
+    /** Percorrer os elementos em ordem crescente */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new InOrderIterator(root, Integer.MIN_VALUE);
+    }
+
+    /** Somar os valores no intervalo [start, end) */
+    @Override
+    public long sumBetween(int start, int end) {
+        long sum = 0;
+        InOrderIterator values = new InOrderIterator(root, start);
+        while (values.hasNext()) {
+            int value = values.nextInt();
+            if (value >= end)
+                break;
+            sum += value;
+        }
+        return sum;
+    }
+
+    /** Contar os valores no intervalo [start, end), percorrendo o intervalo */
+    @Override
+    public int countBetween(int start, int end) {
+        int total = 0;
+        InOrderIterator values = new InOrderIterator(root, start);
+        while (values.hasNext() && values.nextInt() < end)
+            total++;
+        return total;
+    }
+
+    // Caminhamento central a partir do primeiro valor >= from; o topo da pilha é sempre o próximo
+    private static class InOrderIterator implements PrimitiveIterator.OfInt {
+        private final Node[] stack = new Node[MAX_HEIGHT];
+        private int top;
+
+        InOrderIterator(Node root, int from) {
+            Node node = root;
+            while (node != null) {
+                if (node.element >= from) {
+                    stack[top++] = node;
+                    node = node.left;
+                } else
+                    node = node.right;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return top > 0;
+        }
+
+        @Override
+        public int nextInt() {
+            if (top == 0)
+                throw new NoSuchElementException();
+            Node node = stack[--top];
+            for (Node child = node.right; child != null; child = child.left)
+                stack[top++] = child;
+            return node.element;
+        }
+    }
+
+    static class Node {
+        int element;
+        // altura(direita) - altura(esquerda)
+        byte balance;
+        Node left, right;
+
+        Node(int element) {
+            this.element = element;
+        }
+    }
+}
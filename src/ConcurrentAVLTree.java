@@ -0,0 +1,853 @@
+// Imports
+import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CLASSE ConcurrentAVLTree
+ * Árvore AVL segura para várias threads, no estilo da árvore AVL otimista de balanceamento relaxado
+ * (Bronson, Casper, Chafi e Olukotun, "A Practical Concurrent Binary Search Tree").
+ *
+ * - Leituras (contains) não pegam nenhum lock: descem validando a versão de cada nó e recomeçam
+ *   se algum nó do caminho perdeu elementos (rotação ou remoção) no meio do caminho.
+ * - Escritas travam apenas os nós que vão alterar (pai e filho), nunca a árvore inteira.
+ * - Remover um nó com dois filhos só desmarca o "present" (o nó vira apenas roteamento);
+ *   nós sem valor e com no máximo um filho são desligados durante o rebalanceamento.
+ * - O balanceamento é relaxado: uma thread pode ver a árvore temporariamente desbalanceada,
+ *   mas ao fim das operações as alturas voltam a respeitar a AVL.
+ *
+ * Convenção interna de altura: nulo = 0 e folha = 1 (height() devolve no mesmo padrão da AVLTree).
+ */
+public class ConcurrentAVLTree {
+    // bits da versão: desligado (1), em alteração (2) e o contador de alterações a partir do bit 2
+    private static final long UNLINKED = 1L;
+    private static final long CHANGING = 2L;
+    private static final long CHANGE_COUNT = 4L;
+
+    // resultados internos das tentativas
+    private static final int RETRY = -1;
+    private static final int ABSENT = 0;
+    private static final int PRESENT = 1;
+
+    // condições devolvidas pelo nodeCondition (valores >= 0 são a nova altura do nó)
+    private static final int UNLINK_REQUIRED = -1;
+    private static final int REBALANCE_REQUIRED = -2;
+    private static final int NOTHING_REQUIRED = -3;
+
+    // quantas voltas esperar ativamente antes de bloquear no lock de um nó em alteração
+    private static final int SPIN_COUNT = 100;
+
+    // nó sentinela sem chave, a raiz de verdade fica sempre à direita dele
+    private final Node rootHolder = new Node(0, 1, false, null);
+    private final LongAdder count = new LongAdder();
+
+    /** Adicionar um elemento na árvore, retorna false se ele já existia */
+    public boolean add(int value) {
+        boolean added = update(value, true) == ABSENT;
+        if (added)
+            count.increment();
+        return added;
+    }
+
+    /** Remover um elemento da árvore, retorna false se ele não existia */
+    public boolean remove(int value) {
+        boolean removed = update(value, false) == PRESENT;
+        if (removed)
+            count.decrement();
+        return removed;
+    }
+
+    /** Verificar se um elemento está armazenado na árvore ou não (sem locks) */
+    public boolean contains(int value) {
+        while (true) {
+            Node right = rootHolder.right;
+            if (right == null)
+                return false;
+
+            if (value == right.key)
+                return right.present;
+
+            long ovl = right.version;
+            if (isShrinkingOrUnlinked(ovl))
+                right.waitUntilNotChanging();
+            else if (right == rootHolder.right) {
+                int result = attemptGet(value, right, ovl);
+                if (result != RETRY)
+                    return result == PRESENT;
+            }
+        }
+    }
+
+    /** Verificar quantos elementos tem na árvore */
+    public int size() {
+        return count.intValue();
+    }
+
+    /** Verificar se a árvore está vazia ou não */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Verificar qual é a altura da árvore (-1 se vazia, 0 com um único nó) */
+    public int height() {
+        return height(rootHolder.right) - 1;
+    }
+
+    /** Limpar o conteúdo da árvore */
+    public void clear() {
+        synchronized (rootHolder) {
+            rootHolder.right = null;
+            count.reset();
+        }
+    }
+
+    /**
+     * Retornar os elementos da árvore em uma lista usando caminhamento central.
+     * Com escritas acontecendo ao mesmo tempo o resultado não é uma foto exata da árvore.
+     */
+    public ArrayList<Integer> inOrder() {
+        ArrayList<Integer> erd = new ArrayList<>();
+        inOrderTraversal(rootHolder.right, erd);
+        return erd;
+    }
+
+    private void inOrderTraversal(Node node, ArrayList<Integer> erd) {
+        if (node != null) {
+            inOrderTraversal(node.left, erd);
+            if (node.present)
+                erd.add(node.key);
+            inOrderTraversal(node.right, erd);
+        }
+    }
+
+    // ------------- Leitura otimista ------------- //
+
+    // Procura o valor abaixo do node, que foi validado com a versão nodeOVL
+    private int attemptGet(int value, Node node, long nodeOVL) {
+        while (true) {
+            Node child = node.child(value);
+
+            if (child == null) {
+                // só podemos afirmar que não existe se o node não perdeu elementos enquanto olhávamos
+                return node.version != nodeOVL ? RETRY : ABSENT;
+            }
+
+            if (value == child.key)
+                return child.present ? PRESENT : ABSENT;
+
+            long childOVL = child.version;
+            if (isShrinkingOrUnlinked(childOVL)) {
+                child.waitUntilNotChanging();
+                if (node.version != nodeOVL)
+                    return RETRY;
+                // senão tenta de novo a partir do mesmo node
+            } else if (child != node.child(value)) {
+                if (node.version != nodeOVL)
+                    return RETRY;
+            } else {
+                if (node.version != nodeOVL)
+                    return RETRY;
+
+                int result = attemptGet(value, child, childOVL);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    // ------------- Escrita ------------- //
+
+    // Marca o valor como presente (add) ou ausente (remove) e retorna o estado anterior
+    private int update(int value, boolean present) {
+        while (true) {
+            Node right = rootHolder.right;
+            if (right == null) {
+                if (!present)
+                    return ABSENT;
+                if (attemptInsertIntoEmpty(value))
+                    return ABSENT;
+            } else {
+                long ovl = right.version;
+                if (isShrinkingOrUnlinked(ovl))
+                    right.waitUntilNotChanging();
+                else if (right == rootHolder.right) {
+                    int result = attemptUpdate(value, present, rootHolder, right, ovl);
+                    if (result != RETRY)
+                        return result;
+                }
+            }
+        }
+    }
+
+    private boolean attemptInsertIntoEmpty(int value) {
+        synchronized (rootHolder) {
+            if (rootHolder.right != null)
+                return false;
+            rootHolder.right = new Node(value, 1, true, rootHolder);
+            rootHolder.height = 2;
+            return true;
+        }
+    }
+
+    private int attemptUpdate(int value, boolean present, Node parent, Node node, long nodeOVL) {
+        if (value == node.key)
+            return attemptNodeUpdate(present, parent, node);
+
+        while (true) {
+            Node child = node.child(value);
+            if (node.version != nodeOVL)
+                return RETRY;
+
+            if (child == null) {
+                // o valor não existe: remover não tem o que fazer
+                if (!present)
+                    return ABSENT;
+
+                Node damaged;
+                synchronized (node) {
+                    // o node pode ter perdido elementos ou ganho o filho enquanto pegávamos o lock
+                    if (node.version != nodeOVL)
+                        return RETRY;
+                    if (node.child(value) != null)
+                        continue;
+
+                    node.setChild(value, new Node(value, 1, true, node));
+                    damaged = fixHeight_nl(node);
+                }
+                fixHeightAndRebalance(damaged);
+                return ABSENT;
+            }
+
+            long childOVL = child.version;
+            if (isShrinkingOrUnlinked(childOVL))
+                child.waitUntilNotChanging();
+            else if (child == node.child(value)) {
+                if (node.version != nodeOVL)
+                    return RETRY;
+
+                int result = attemptUpdate(value, present, node, child, childOVL);
+                if (result != RETRY)
+                    return result;
+            }
+        }
+    }
+
+    // Atualiza um nó que já tem a chave procurada
+    private int attemptNodeUpdate(boolean present, Node parent, Node node) {
+        if (!present && (node.left == null || node.right == null)) {
+            // remoção com no máximo um filho: o nó pode ser desligado, então trava o pai antes
+            Node damaged;
+            synchronized (parent) {
+                if (isUnlinked(parent.version) || node.parent != parent)
+                    return RETRY;
+
+                synchronized (node) {
+                    if (!node.present)
+                        return ABSENT;
+                    if (!attemptUnlink_nl(parent, node))
+                        return RETRY;
+                }
+                // aproveita o lock do pai para acertar a altura dele
+                damaged = fixHeight_nl(parent);
+            }
+            fixHeightAndRebalance(damaged);
+            return PRESENT;
+        }
+
+        synchronized (node) {
+            if (isUnlinked(node.version))
+                return RETRY;
+
+            boolean previous = node.present;
+            if (previous == present)
+                return previous ? PRESENT : ABSENT;
+
+            // se agora dá pra desligar o nó, recomeça pelo caminho de cima
+            if (!present && (node.left == null || node.right == null))
+                return RETRY;
+
+            node.present = present;
+            return previous ? PRESENT : ABSENT;
+        }
+    }
+
+    // Desliga o nó do pai (precisa dos locks dos dois)
+    private boolean attemptUnlink_nl(Node parent, Node node) {
+        Node parentL = parent.left;
+        Node parentR = parent.right;
+        if (parentL != node && parentR != node)
+            // o nó já não é filho desse pai
+            return false;
+
+        Node left = node.left;
+        Node right = node.right;
+        if (left != null && right != null)
+            // ganhou um segundo filho, não dá mais para desligar
+            return false;
+
+        Node splice = left != null ? left : right;
+        if (parentL == node)
+            parent.left = splice;
+        else
+            parent.right = splice;
+        if (splice != null)
+            splice.parent = parent;
+
+        node.version = UNLINKED;
+        node.present = false;
+        return true;
+    }
+
+    // ------------- Balanceamento relaxado ------------- //
+
+    private int nodeCondition(Node node) {
+        Node nL = node.left;
+        Node nR = node.right;
+
+        if ((nL == null || nR == null) && !node.present)
+            return UNLINK_REQUIRED;
+
+        int hN = node.height;
+        int hL0 = height(nL);
+        int hR0 = height(nR);
+
+        int hNRepl = 1 + Math.max(hL0, hR0);
+        int bal = hL0 - hR0;
+
+        if (bal < -1 || bal > 1)
+            return REBALANCE_REQUIRED;
+
+        return hN != hNRepl ? hNRepl : NOTHING_REQUIRED;
+    }
+
+    // Sobe a partir do nó consertando alturas e rotacionando até a raiz.
+    // Não para no primeiro nó que está certo porque uma rotação pode ter devolvido um nó de baixo
+    // para consertar antes de acertar a altura do pai dela, que fica mais acima no caminho.
+    private void fixHeightAndRebalance(Node node) {
+        while (node != null && node.parent != null) {
+            if (isUnlinked(node.version))
+                // quem desligou o nó é responsável pelo pai dele
+                return;
+
+            int condition = nodeCondition(node);
+            if (condition == NOTHING_REQUIRED)
+                node = node.parent;
+            else if (condition != UNLINK_REQUIRED && condition != REBALANCE_REQUIRED) {
+                synchronized (node) {
+                    node = fixHeight_nl(node);
+                }
+            } else {
+                Node nParent = node.parent;
+                synchronized (nParent) {
+                    if (!isUnlinked(nParent.version) && node.parent == nParent) {
+                        synchronized (node) {
+                            node = rebalance_nl(nParent, node);
+                        }
+                    }
+                    // senão o pai mudou, tenta de novo com o mesmo nó
+                }
+            }
+        }
+    }
+
+    // Acerta a altura do nó (com o lock dele) e retorna o próximo nó que precisa de atenção
+    private Node fixHeight_nl(Node node) {
+        int condition = nodeCondition(node);
+        switch (condition) {
+            case REBALANCE_REQUIRED:
+            case UNLINK_REQUIRED:
+                return node;
+            case NOTHING_REQUIRED:
+                // continua subindo, ver fixHeightAndRebalance
+                return node.parent;
+            default:
+                node.height = condition;
+                return node.parent;
+        }
+    }
+
+    private Node rebalance_nl(Node nParent, Node n) {
+        Node nL = n.left;
+        Node nR = n.right;
+
+        if ((nL == null || nR == null) && !n.present) {
+            if (attemptUnlink_nl(nParent, n))
+                return fixHeight_nl(nParent);
+            // tenta de novo
+            return n;
+        }
+
+        int hN = n.height;
+        int hL0 = height(nL);
+        int hR0 = height(nR);
+        int hNRepl = 1 + Math.max(hL0, hR0);
+        int bal = hL0 - hR0;
+
+        if (bal > 1)
+            return rebalanceToRight_nl(nParent, n, nL, hR0);
+        else if (bal < -1)
+            return rebalanceToLeft_nl(nParent, n, nR, hL0);
+        else if (hNRepl != hN) {
+            n.height = hNRepl;
+            return fixHeight_nl(nParent);
+        } else
+            return nParent;
+    }
+
+    private Node rebalanceToRight_nl(Node nParent, Node n, Node nL, int hR0) {
+        synchronized (nL) {
+            int hL = nL.height;
+            if (hL - hR0 <= 1)
+                return n;
+
+            Node nLR = nL.right;
+            int hLL0 = height(nL.left);
+            int hLR0 = height(nLR);
+            if (hLL0 >= hLR0)
+                // rotação simples
+                return rotateRight_nl(nParent, n, nL, hR0, hLL0, nLR, hLR0);
+
+            synchronized (nLR) {
+                int hLR = nLR.height;
+                if (hLL0 >= hLR)
+                    return rotateRight_nl(nParent, n, nL, hR0, hLL0, nLR, hLR);
+
+                int hLRL = height(nLR.left);
+                int b = hLL0 - hLRL;
+                if (b >= -1 && b <= 1)
+                    // rotação dupla
+                    return rotateRightOverLeft_nl(nParent, n, nL, hR0, hLL0, nLR, hLRL);
+            }
+            // a dupla deixaria nL desbalanceado (só acontece com outra thread no meio):
+            // balanceia nL primeiro e n depois
+            return rebalanceToLeft_nl(n, nL, nLR, hLL0);
+        }
+    }
+
+    private Node rebalanceToLeft_nl(Node nParent, Node n, Node nR, int hL0) {
+        synchronized (nR) {
+            int hR = nR.height;
+            if (hL0 - hR >= -1)
+                return n;
+
+            Node nRL = nR.left;
+            int hRL0 = height(nRL);
+            int hRR0 = height(nR.right);
+            if (hRR0 >= hRL0)
+                return rotateLeft_nl(nParent, n, hL0, nR, nRL, hRL0, hRR0);
+
+            synchronized (nRL) {
+                int hRL = nRL.height;
+                if (hRR0 >= hRL)
+                    return rotateLeft_nl(nParent, n, hL0, nR, nRL, hRL, hRR0);
+
+                int hRLR = height(nRL.right);
+                int b = hRR0 - hRLR;
+                if (b >= -1 && b <= 1)
+                    return rotateLeftOverRight_nl(nParent, n, hL0, nR, nRL, hRR0, hRLR);
+            }
+            return rebalanceToRight_nl(n, nR, nRL, hRR0);
+        }
+    }
+
+    // Nas rotações só o nó que desce (e perde elementos) é marcado como em alteração,
+    // porque os leitores que estão nos nós que sobem continuam encontrando tudo que procuravam.
+
+    private Node rotateRight_nl(Node nParent, Node n, Node nL, int hR, int hLL, Node nLR, int hLR) {
+        long nodeOVL = n.version;
+        Node nPL = nParent.left;
+
+        n.version = nodeOVL | CHANGING;
+
+        n.left = nLR;
+        if (nLR != null)
+            nLR.parent = n;
+
+        nL.right = n;
+        n.parent = nL;
+
+        if (nPL == n)
+            nParent.left = nL;
+        else
+            nParent.right = nL;
+        nL.parent = nParent;
+
+        int hNRepl = 1 + Math.max(hLR, hR);
+        n.height = hNRepl;
+        nL.height = 1 + Math.max(hLL, hNRepl);
+
+        n.version = nodeOVL + CHANGE_COUNT;
+
+        // se a altura de nLR mudou depois de lida, quem mudou pode ter subido pelo pai antigo (nL)
+        // e não vai consertar n, então n fica para a próxima volta
+        if (height(nLR) != hLR)
+            return n;
+
+        // verifica se sobrou algum problema em n, nL ou no pai
+        int balN = hLR - hR;
+        if (balN < -1 || balN > 1)
+            return n;
+        if ((nLR == null || hR == 0) && !n.present)
+            return n;
+
+        int balL = hLL - hNRepl;
+        if (balL < -1 || balL > 1)
+            return nL;
+        if (hLL == 0 && !nL.present)
+            return nL;
+
+        return fixHeight_nl(nParent);
+    }
+
+    private Node rotateLeft_nl(Node nParent, Node n, int hL, Node nR, Node nRL, int hRL, int hRR) {
+        long nodeOVL = n.version;
+        Node nPL = nParent.left;
+
+        n.version = nodeOVL | CHANGING;
+
+        n.right = nRL;
+        if (nRL != null)
+            nRL.parent = n;
+
+        nR.left = n;
+        n.parent = nR;
+
+        if (nPL == n)
+            nParent.left = nR;
+        else
+            nParent.right = nR;
+        nR.parent = nParent;
+
+        int hNRepl = 1 + Math.max(hL, hRL);
+        n.height = hNRepl;
+        nR.height = 1 + Math.max(hNRepl, hRR);
+
+        n.version = nodeOVL + CHANGE_COUNT;
+
+        if (height(nRL) != hRL)
+            return n;
+
+        int balN = hRL - hL;
+        if (balN < -1 || balN > 1)
+            return n;
+        if ((nRL == null || hL == 0) && !n.present)
+            return n;
+
+        int balR = hRR - hNRepl;
+        if (balR < -1 || balR > 1)
+            return nR;
+        if (hRR == 0 && !nR.present)
+            return nR;
+
+        return fixHeight_nl(nParent);
+    }
+
+    private Node rotateRightOverLeft_nl(Node nParent, Node n, Node nL, int hR, int hLL, Node nLR, int hLRL) {
+        long nodeOVL = n.version;
+        long leftOVL = nL.version;
+
+        Node nPL = nParent.left;
+        Node nLRL = nLR.left;
+        Node nLRR = nLR.right;
+        int hLRR = height(nLRR);
+
+        n.version = nodeOVL | CHANGING;
+        nL.version = leftOVL | CHANGING;
+
+        n.left = nLRR;
+        if (nLRR != null)
+            nLRR.parent = n;
+
+        nL.right = nLRL;
+        if (nLRL != null)
+            nLRL.parent = nL;
+
+        nLR.left = nL;
+        nL.parent = nLR;
+        nLR.right = n;
+        n.parent = nLR;
+
+        if (nPL == n)
+            nParent.left = nLR;
+        else
+            nParent.right = nLR;
+        nLR.parent = nParent;
+
+        int hNRepl = 1 + Math.max(hLRR, hR);
+        n.height = hNRepl;
+        int hLRepl = 1 + Math.max(hLL, hLRL);
+        nL.height = hLRepl;
+        nLR.height = 1 + Math.max(hLRepl, hNRepl);
+
+        n.version = nodeOVL + CHANGE_COUNT;
+        nL.version = leftOVL + CHANGE_COUNT;
+
+        if (height(nLRR) != hLRR)
+            return n;
+        if (height(nLRL) != hLRL)
+            return nL;
+
+        int balN = hLRR - hR;
+        if (balN < -1 || balN > 1)
+            return n;
+        if ((nLRR == null || hR == 0) && !n.present)
+            return n;
+
+        // nL desceu e pode ter ficado sem valor e com um filho só
+        if ((nLRL == null || hLL == 0) && !nL.present)
+            return nL;
+
+        int balLR = hLRepl - hNRepl;
+        if (balLR < -1 || balLR > 1)
+            return nLR;
+
+        return fixHeight_nl(nParent);
+    }
+
+    private Node rotateLeftOverRight_nl(Node nParent, Node n, int hL, Node nR, Node nRL, int hRR, int hRLR) {
+        long nodeOVL = n.version;
+        long rightOVL = nR.version;
+
+        Node nPL = nParent.left;
+        Node nRLL = nRL.left;
+        Node nRLR = nRL.right;
+        int hRLL = height(nRLL);
+
+        n.version = nodeOVL | CHANGING;
+        nR.version = rightOVL | CHANGING;
+
+        n.right = nRLL;
+        if (nRLL != null)
+            nRLL.parent = n;
+
+        nR.left = nRLR;
+        if (nRLR != null)
+            nRLR.parent = nR;
+
+        nRL.right = nR;
+        nR.parent = nRL;
+        nRL.left = n;
+        n.parent = nRL;
+
+        if (nPL == n)
+            nParent.left = nRL;
+        else
+            nParent.right = nRL;
+        nRL.parent = nParent;
+
+        int hNRepl = 1 + Math.max(hL, hRLL);
+        n.height = hNRepl;
+        int hRRepl = 1 + Math.max(hRLR, hRR);
+        nR.height = hRRepl;
+        nRL.height = 1 + Math.max(hNRepl, hRRepl);
+
+        n.version = nodeOVL + CHANGE_COUNT;
+        nR.version = rightOVL + CHANGE_COUNT;
+
+        if (height(nRLL) != hRLL)
+            return n;
+        if (height(nRLR) != hRLR)
+            return nR;
+
+        int balN = hRLL - hL;
+        if (balN < -1 || balN > 1)
+            return n;
+        if ((nRLL == null || hL == 0) && !n.present)
+            return n;
+
+        if ((nRLR == null || hRR == 0) && !nR.present)
+            return nR;
+
+        int balRL = hRRepl - hNRepl;
+        if (balRL < -1 || balRL > 1)
+            return nRL;
+
+        return fixHeight_nl(nParent);
+    }
+
+    // ------------- Auxiliares ------------- //
+
+    private static int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static boolean isUnlinked(long ovl) {
+        return (ovl & UNLINKED) != 0;
+    }
+
+    private static boolean isShrinkingOrUnlinked(long ovl) {
+        return (ovl & (UNLINKED | CHANGING)) != 0;
+    }
+
+    static class Node {
+        final int key;
+        volatile int height;
+        volatile boolean present;
+        volatile Node parent;
+        volatile long version;
+        volatile Node left, right;
+
+        Node(int key, int height, boolean present, Node parent) {
+            this.key = key;
+            this.height = height;
+            this.present = present;
+            this.parent = parent;
+        }
+
+        // filho na direção do valor procurado (a sentinela sempre manda para a direita)
+        Node child(int value) {
+            return value < key && parent != null ? left : right;
+        }
+
+        void setChild(int value, Node node) {
+            if (value < key)
+                left = node;
+            else
+                right = node;
+        }
+
+        // Espera a rotação que está alterando este nó terminar
+        void waitUntilNotChanging() {
+            long ovl = version;
+            if ((ovl & CHANGING) == 0)
+                return;
+
+            for (int i = 0; i < SPIN_COUNT; i++) {
+                if (version != ovl)
+                    return;
+                Thread.onSpinWait();
+            }
+
+            // quem está rotacionando segura o lock do nó, então basta esperar por ele
+            synchronized (this) {
+            }
+        }
+    }
+
+    // Teste de estresse: várias threads fazendo add/remove/contains ao mesmo tempo,
+    // seguido da vazão com 1..N threads comparada com a AVLTree atrás de um lock global
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int keyRange = args.length > 1 ? Integer.parseInt(args[1]) : 1 << 16;
+        long millis = args.length > 2 ? Long.parseLong(args[2]) : 1000;
+
+        System.out.println("Teste de estresse com " + Math.max(2, maxThreads) + " threads...");
+        stressTest(Math.max(2, maxThreads), 1024, 200_000);
+        System.out.println("OK: conteúdo, ordem e balanceamento conferem.");
+
+        System.out.println("\nthreads | ConcurrentAVLTree (ops/s) | AVLTree com lock global (ops/s)");
+        for (int threads = 1; ; threads = Math.min(threads * 2, maxThreads)) {
+            ConcurrentAVLTree concurrent = new ConcurrentAVLTree();
+            AVLTree locked = new AVLTree();
+            for (int k = 0; k < keyRange; k += 2) {
+                concurrent.add(k);
+                locked.add(k);
+            }
+            double a = throughput(threads, millis, keyRange, concurrent::add, concurrent::remove, concurrent::contains);
+            double b = throughput(threads, millis, keyRange,
+                    k -> { synchronized (locked) { locked.add(k); return true; } },
+                    k -> { synchronized (locked) { return locked.remove(k); } },
+                    k -> { synchronized (locked) { return locked.contains(k); } });
+            System.out.printf("%7d | %25.0f | %31.0f%n", threads, a, b);
+            if (threads >= maxThreads)
+                break;
+        }
+    }
+
+    private static void stressTest(int threads, int keyRange, int opsPerThread) throws InterruptedException {
+        ConcurrentAVLTree tree = new ConcurrentAVLTree();
+        // saldo de add/remove com sucesso por chave, somado no fim
+        long[][] balance = new long[threads][keyRange];
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            long[] mine = balance[t];
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < opsPerThread; i++) {
+                    int key = random.nextInt(keyRange);
+                    int op = random.nextInt(10);
+                    if (op < 4) {
+                        if (tree.add(key))
+                            mine[key]++;
+                    } else if (op < 8) {
+                        if (tree.remove(key))
+                            mine[key]--;
+                    } else
+                        tree.contains(key);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+
+        int expectedSize = 0;
+        for (int key = 0; key < keyRange; key++) {
+            long total = 0;
+            for (long[] mine : balance)
+                total += mine[key];
+            if (total != 0 && total != 1)
+                throw new IllegalStateException("Saldo inválido para a chave " + key + ": " + total);
+            if (tree.contains(key) != (total == 1))
+                throw new IllegalStateException("contains(" + key + ") não bate com o saldo " + total);
+            expectedSize += (int) total;
+        }
+        if (tree.size() != expectedSize || tree.inOrder().size() != expectedSize)
+            throw new IllegalStateException("Tamanho " + tree.size() + " diferente do esperado " + expectedSize);
+        tree.checkStructure(tree.rootHolder.right, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    // Confere ordem, ponteiros de pai, alturas e balanceamento (só com a árvore parada)
+    private int checkStructure(Node node, long low, long high) {
+        if (node == null)
+            return 0;
+        if (node.key <= low || node.key >= high)
+            throw new IllegalStateException("Ordem violada no nó " + node.key);
+        if (node.left != null && node.left.parent != node || node.right != null && node.right.parent != node)
+            throw new IllegalStateException("Ponteiro de pai errado abaixo do nó " + node.key);
+
+        int hL = checkStructure(node.left, low, node.key);
+        int hR = checkStructure(node.right, node.key, high);
+        if (node.height != 1 + Math.max(hL, hR) || Math.abs(hL - hR) > 1)
+            throw new IllegalStateException("Altura ou balanceamento errado no nó " + node.key + " h=" + node.height + " hL=" + hL + " hR=" + hR + " p=" + node.present);
+        return node.height;
+    }
+
+    private interface IntOp {
+        boolean apply(int key);
+    }
+
+    private static double throughput(int threads, long millis, int keyRange, IntOp add, IntOp remove, IntOp contains)
+            throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        long deadline = System.nanoTime() + millis * 1_000_000L;
+        Thread[] workers = new Thread[threads];
+
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long done = 0;
+                while (System.nanoTime() < deadline) {
+                    // 20% add, 10% remove, 70% contains
+                    for (int i = 0; i < 256; i++) {
+                        int key = random.nextInt(keyRange);
+                        int op = random.nextInt(10);
+                        if (op < 2)
+                            add.apply(key);
+                        else if (op < 3)
+                            remove.apply(key);
+                        else
+                            contains.apply(key);
+                    }
+                    done += 256;
+                }
+                ops.add(done);
+            });
+            workers[t].start();
+        }
+        for (Thread worker : workers)
+            worker.join();
+        return ops.sum() * 1000.0 / millis;
+    }
+}
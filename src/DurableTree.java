@@ -0,0 +1,252 @@
+// Imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+
+/**
+ * CLASSE DurableTree
+ * Camada opcional de durabilidade em volta de uma AVLTree ou BinarySearchTree: toda alteração feita
+ * por add/remove vai primeiro para um MutationLog (com commit em grupo) e depois para a árvore.
+ *
+ * No diretório ficam, para a geração atual g:
+ * - snapshot.g: estado completo da árvore (ausente na geração 0 = árvore vazia)
+ * - wal.g: alterações feitas depois do snapshot.g
+ * Ao abrir, o snapshot mais novo é carregado e o wal da mesma geração é reaplicado por cima.
+ * compact() grava o snapshot da geração seguinte, começa um wal vazio e só então apaga os arquivos
+ * antigos; como o snapshot novo aparece de uma vez (arquivo temporário + rename), uma queda em
+ * qualquer ponto deixa uma geração completa para recuperar.
+ */
+public class DurableTree<T> implements Closeable {
+    private static final String SNAPSHOT = "snapshot.";
+    private static final String WAL = "wal.";
+
+    // Como cada tipo de árvore é criado, alterado e salvo
+    private interface Store<T> {
+        T empty();
+
+        T load(Path file) throws IOException;
+
+        void save(T tree, Path file) throws IOException;
+
+        void add(T tree, int value);
+
+        boolean remove(T tree, int value);
+    }
+
+    // A AVLTree usa o próprio save/load mapeado em memória
+    private static final Store<AVLTree> AVL = new Store<AVLTree>() {
+        public AVLTree empty() { return new AVLTree(); }
+        public AVLTree load(Path file) throws IOException { return AVLTree.load(file); }
+        public void save(AVLTree tree, Path file) throws IOException { tree.save(file); }
+        public void add(AVLTree tree, int value) { tree.add(value); }
+        public boolean remove(AVLTree tree, int value) { return tree.remove(value); }
+    };
+
+    // A BinarySearchTree é salva como um log de adds em pré-ordem: o replay reconstrói o mesmo conteúdo,
+    // e também a mesma forma quando não há valores repetidos
+    private static final Store<BinarySearchTree> BST = new Store<BinarySearchTree>() {
+        public BinarySearchTree empty() { return new BinarySearchTree(); }
+
+        public BinarySearchTree load(Path file) throws IOException {
+            BinarySearchTree tree = new BinarySearchTree();
+            MutationLog.replay(file, (op, value) -> tree.add(value));
+            return tree;
+        }
+
+        public void save(BinarySearchTree tree, Path file) throws IOException {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.deleteIfExists(temp);
+            try (MutationLog log = new MutationLog(temp, 1 << 16, 0)) {
+                PrimitiveIterator.OfInt elements = tree.preOrderIterator();
+                while (elements.hasNext())
+                    log.append(MutationLog.ADD, elements.nextInt());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        public void add(BinarySearchTree tree, int value) { tree.add(value); }
+        public boolean remove(BinarySearchTree tree, int value) { return tree.remove(value); }
+    };
+
+    private final Store<T> store;
+    private final Path directory;
+    private final int batchSize;
+    private final long windowMillis;
+    private T tree;
+    private long generation;
+    private MutationLog log;
+
+    private DurableTree(Store<T> store, Path directory, int batchSize, long windowMillis) throws IOException {
+        this.store = store;
+        this.directory = directory;
+        this.batchSize = batchSize;
+        this.windowMillis = windowMillis;
+        Files.createDirectories(directory);
+        recover();
+    }
+
+    /** Abrir (ou criar) uma AVLTree durável no diretório, com lotes de batchSize e janela de windowMillis */
+    public static DurableTree<AVLTree> avl(Path directory, int batchSize, long windowMillis) throws IOException {
+        return new DurableTree<>(AVL, directory, batchSize, windowMillis);
+    }
+
+    /** Abrir (ou criar) uma BinarySearchTree durável no diretório, com lotes de batchSize e janela de windowMillis */
+    public static DurableTree<BinarySearchTree> bst(Path directory, int batchSize, long windowMillis) throws IOException {
+        return new DurableTree<>(BST, directory, batchSize, windowMillis);
+    }
+
+    // Carrega a geração mais nova que tem snapshot, reaplica o wal dela e apaga o resto
+    private void recover() throws IOException {
+        generation = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT + "*")) {
+            for (Path file : files) {
+                long g = generationOf(file, SNAPSHOT);
+                if (g > generation)
+                    generation = g;
+            }
+        }
+
+        Path snapshot = directory.resolve(SNAPSHOT + generation);
+        tree = Files.exists(snapshot) ? store.load(snapshot) : store.empty();
+        MutationLog.replay(directory.resolve(WAL + generation), (op, value) -> {
+            if (op == MutationLog.ADD)
+                store.add(tree, value);
+            else
+                store.remove(tree, value);
+        });
+        deleteOtherGenerations();
+        log = new MutationLog(directory.resolve(WAL + generation), batchSize, windowMillis);
+    }
+
+    // Geração no nome do arquivo (ex.: snapshot.12), ou -1 para arquivos temporários e desconhecidos
+    private static long generationOf(Path file, String prefix) {
+        String name = file.getFileName().toString();
+        try {
+            return name.startsWith(prefix) ? Long.parseLong(name.substring(prefix.length())) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void deleteOtherGenerations() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                boolean current = name.equals(SNAPSHOT + generation) || name.equals(WAL + generation);
+                if (!current && (name.startsWith(SNAPSHOT) || name.startsWith(WAL)))
+                    Files.delete(file);
+            }
+        }
+    }
+
+    /** Retornar a árvore para consultas; alterações devem passar pelo add/remove desta classe */
+    public T tree() {
+        return tree;
+    }
+
+    /** Registrar e aplicar a inserção de um valor */
+    public void add(int value) throws IOException {
+        log.append(MutationLog.ADD, value);
+        store.add(tree, value);
+    }
+
+    /** Registrar e aplicar a remoção de um valor */
+    public boolean remove(int value) throws IOException {
+        log.append(MutationLog.REMOVE, value);
+        return store.remove(tree, value);
+    }
+
+    /** Garantir que todas as alterações feitas até aqui estão no disco */
+    public void commit() throws IOException {
+        log.commit();
+    }
+
+    /** Gravar um snapshot novo e começar um log vazio, descartando os arquivos da geração anterior */
+    public void compact() throws IOException {
+        log.commit();
+        long next = generation + 1;
+        store.save(tree, directory.resolve(SNAPSHOT + next));
+
+        MutationLog previous = log;
+        log = new MutationLog(directory.resolve(WAL + next), batchSize, windowMillis);
+        generation = next;
+        previous.close();
+        deleteOtherGenerations();
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+
+    // Mede add/remove por segundo com diferentes tamanhos de lote (o fsync domina com lotes pequenos)
+    public static void main(String[] args) throws IOException {
+        int operations = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int[] batchSizes = {1, 8, 64, 512, 4096};
+
+        Path directory = Files.createTempDirectory("durable-tree");
+        try {
+            System.out.println("lote | AVLTree (ops/s) | BinarySearchTree (ops/s)");
+            for (int batchSize : batchSizes) {
+                double avl = throughput(avl(directory.resolve("avl-" + batchSize), batchSize, 10), operations);
+                double bst = throughput(bst(directory.resolve("bst-" + batchSize), batchSize, 10), operations);
+                System.out.printf("%4d | %15.0f | %24.0f%n", batchSize, avl, bst);
+            }
+
+            // confere que uma reabertura reconstrói o mesmo conteúdo, antes e depois da compactação
+            Path check = directory.resolve("check");
+            String before;
+            try (DurableTree<AVLTree> durable = avl(check, 64, 10)) {
+                Random random = new Random(1);
+                for (int i = 0; i < operations; i++) {
+                    if (random.nextInt(3) == 0)
+                        durable.remove(random.nextInt(1000));
+                    else
+                        durable.add(random.nextInt(1000));
+                    if (i == operations / 2)
+                        durable.compact();
+                }
+                durable.commit();
+                before = durable.tree().inOrder().toString();
+            }
+            try (DurableTree<AVLTree> reopened = avl(check, 64, 10)) {
+                System.out.println("Replay " + (before.equals(reopened.tree().inOrder().toString()) ? "OK" : "DIVERGIU"));
+            }
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static double throughput(DurableTree<?> durable, int operations) throws IOException {
+        Random random = new Random(operations);
+        try (durable) {
+            long start = System.nanoTime();
+            for (int i = 0; i < operations; i++) {
+                if (random.nextInt(4) == 0)
+                    durable.remove(random.nextInt(operations));
+                else
+                    durable.add(random.nextInt(operations));
+            }
+            durable.commit();
+            return operations / ((System.nanoTime() - start) / 1e9);
+        }
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (var files = Files.walk(directory)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(file -> {
+                try {
+                    Files.delete(file);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,100 @@
+// Imports
+import java.util.Random;
+
+/**
+ * CLASSE FingerBenchmark
+ * Compara a AVLTree com e sem busca por finger (ver AVLTree.setFingerSearch e AVLTree.cursor) em fluxos
+ * ordenados, invertidos, quase ordenados e aleatórios: add de todas as chaves, contains e depois remove,
+ * sempre na mesma ordem. Sem finger o contains é o da árvore; com finger, o de um cursor.
+ *
+ * Uso: java FingerBenchmark [quantidade de chaves]
+ */
+public class FingerBenchmark {
+    private static final int ROUNDS = 5;
+    // no fluxo quase ordenado cada chave troca de lugar com outra até essa distância à frente
+    private static final int DISORDER = 32;
+
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] names = {"ordenado", "invertido", "quase ordenado", "aleatório"};
+        int[][] streams = {sorted(n), reversed(n), nearlySorted(n, new Random(1)), new Random(2).ints(n).toArray()};
+
+        System.out.printf("%d chaves, melhor de %d rodadas (ns/op)%n", n, ROUNDS);
+        System.out.printf("%-15s %10s %10s %8s %13s %13s %8s %12s %12s %8s%n", "fluxo", "add raiz", "add finger",
+                "ganho", "contains raiz", "contains fin.", "ganho", "remove raiz", "remove fin.", "ganho");
+        for (int s = 0; s < streams.length; s++) {
+            double[] plain = measure(streams[s], false);
+            double[] finger = measure(streams[s], true);
+            System.out.printf("%-15s %10.1f %10.1f %7.1fx %13.1f %13.1f %7.1fx %12.1f %12.1f %7.1fx%n", names[s],
+                    plain[0], finger[0], plain[0] / finger[0], plain[1], finger[1], plain[1] / finger[1],
+                    plain[2], finger[2], plain[2] / finger[2]);
+        }
+    }
+
+    // Retorna {ns por add, ns por contains, ns por remove}, o melhor de ROUNDS rodadas
+    private static double[] measure(int[] keys, boolean finger) {
+        double[] best = {Double.MAX_VALUE, Double.MAX_VALUE, Double.MAX_VALUE};
+        for (int round = 0; round < ROUNDS; round++) {
+            AVLTree tree = new AVLTree();
+            tree.setFingerSearch(finger);
+
+            long start = System.nanoTime();
+            for (int key : keys)
+                tree.add(key);
+            best[0] = Math.min(best[0], (System.nanoTime() - start) / (double) keys.length);
+
+            AVLTree.Cursor cursor = tree.cursor();
+            int found = 0;
+            start = System.nanoTime();
+            if (finger) {
+                for (int key : keys)
+                    if (cursor.contains(key))
+                        found++;
+            } else {
+                for (int key : keys)
+                    if (tree.contains(key))
+                        found++;
+            }
+            best[1] = Math.min(best[1], (System.nanoTime() - start) / (double) keys.length);
+            if (found != keys.length)
+                throw new IllegalStateException("contains não achou todas as chaves");
+
+            // o fluxo aleatório pode repetir chaves, então compara com o tamanho e não com keys.length
+            int added = tree.size();
+            int removed = 0;
+            start = System.nanoTime();
+            for (int key : keys)
+                if (tree.remove(key))
+                    removed++;
+            best[2] = Math.min(best[2], (System.nanoTime() - start) / (double) keys.length);
+            if (removed != added)
+                throw new IllegalStateException("remove não achou todas as chaves");
+        }
+        return best;
+    }
+
+    private static int[] sorted(int n) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = i;
+        return keys;
+    }
+
+    private static int[] reversed(int n) {
+        int[] keys = new int[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = n - 1 - i;
+        return keys;
+    }
+
+    private static int[] nearlySorted(int n, Random random) {
+        int[] keys = sorted(n);
+        for (int i = 0; i < n; i++) {
+            int j = Math.min(n - 1, i + random.nextInt(DISORDER));
+            int key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,68 @@
+// Imports
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * INTERFACE IntOrderedSet
+ * Operações comuns às árvores de int (BinarySearchTree, AVLTree, RedBlackTree...), para que quem usa
+ * possa trocar de motor sem mudar o código; o motor pode vir da configuração (ver TreeEngine).
+ *
+ * A BinarySearchTree aceita valores repetidos; os outros motores ignoram o add de um valor existente.
+ */
+public interface IntOrderedSet {
+    /** Adicionar um valor; retorna false se ele não foi inserido (já existia) */
+    boolean add(int value);
+
+    /** Remover um valor; retorna false se ele não estava no conjunto */
+    boolean remove(int value);
+
+    /** Verificar se um valor está no conjunto */
+    boolean contains(int value);
+
+    /** Quantidade de valores */
+    int size();
+
+    /** Verificar se o conjunto está vazio */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Altura da árvore em arestas (0 para um único nodo, -1 para o conjunto vazio) */
+    int height();
+
+    /** Remover todos os valores */
+    void clear();
+
+    /** Percorrer os valores em ordem crescente, sem boxing */
+    PrimitiveIterator.OfInt iterator();
+
+    /** Dividir o percurso em ordem crescente (os motores que sabem dividir em partes sobrescrevem) */
+    default Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(iterator(), size(), Spliterator.ORDERED | Spliterator.SORTED | Spliterator.NONNULL);
+    }
+
+    /** Valores em ordem crescente como IntStream */
+    default IntStream intStream() {
+        return StreamSupport.intStream(spliterator(), false);
+    }
+
+    /** Aplicar a ação em cada valor, em ordem crescente */
+    default void forEach(IntConsumer action) {
+        PrimitiveIterator.OfInt values = iterator();
+        while (values.hasNext())
+            action.accept(values.nextInt());
+    }
+
+    /** Somar os valores no intervalo [start, end) */
+    long sumBetween(int start, int end);
+
+    /** Contar os valores no intervalo [start, end) */
+    int countBetween(int start, int end);
+
+    /** Memória retida pelo conjunto (nodos e estruturas auxiliares), pelo layout dos objetos nesta JVM */
+    MemoryFootprint memoryFootprint();
+}
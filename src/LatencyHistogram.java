@@ -0,0 +1,152 @@
+// Imports
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CLASSE LatencyHistogram
+ * Histograma log-linear de latências em nanossegundos, com memória fixa e sem locks na gravação.
+ *
+ * Até 63 ns cada valor tem a própria posição; acima disso cada potência de 2 é dividida em 32 faixas
+ * iguais, então o valor reportado fica no máximo ~3% acima do medido, até 2^41 ns (~36 min; acima
+ * disso vai tudo para a última faixa). São 1184 contadores (~9 KB) por thread.
+ *
+ * Cada thread grava na sua própria célula (só ela escreve ali, então basta ler, somar e gravar com
+ * lazySet, sem CAS); a leitura soma as células de todas as threads. O reset não zera as células, que
+ * podem estar sendo gravadas: guarda a soma atual como base e as leituras seguintes a descontam.
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAX_EXPONENT = 40;
+    static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * SUB_BUCKETS;
+
+    /** Percentis mostrados nas tabelas */
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final CopyOnWriteArrayList<AtomicLongArray> cells = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<AtomicLongArray> cell = ThreadLocal.withInitial(() -> {
+        AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        cells.add(counts);
+        return counts;
+    });
+    // soma das células no último reset
+    private long[] baseline = new long[BUCKETS];
+
+    /** Registrar uma latência em nanossegundos (negativas contam como 0) */
+    public void record(long nanos) {
+        AtomicLongArray counts = cell.get();
+        int index = index(nanos);
+        counts.lazySet(index, counts.get(index) + 1);
+    }
+
+    /** Retornar as latências registradas desde o último reset */
+    public synchronized Snapshot snapshot() {
+        long[] counts = merge();
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] -= baseline[i];
+        return new Snapshot(counts);
+    }
+
+    /** Descartar as latências registradas até agora (para medir por intervalo) */
+    public synchronized void reset() {
+        baseline = merge();
+    }
+
+    /** Retornar as latências do intervalo desde o último reset e começar um novo intervalo */
+    public synchronized Snapshot intervalSnapshot() {
+        long[] current = merge();
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++)
+            counts[i] = current[i] - baseline[i];
+        baseline = current;
+        return new Snapshot(counts);
+    }
+
+    private long[] merge() {
+        long[] counts = new long[BUCKETS];
+        for (AtomicLongArray cell : cells)
+            for (int i = 0; i < BUCKETS; i++)
+                counts[i] += cell.get(i);
+        return counts;
+    }
+
+    // Posição do valor: linear até SUB_BUCKETS, depois SUB_BUCKETS faixas por potência de 2
+    static int index(long nanos) {
+        if (nanos < SUB_BUCKETS)
+            return (int) Math.max(0, nanos);
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent > MAX_EXPONENT)
+            return BUCKETS - 1;
+        int mantissa = (int) (nanos >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BITS) * SUB_BUCKETS + mantissa;
+    }
+
+    // Menor valor que cai na posição
+    static long lowestValue(int index) {
+        if (index < SUB_BUCKETS)
+            return index;
+        int shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        int mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + mantissa) << shift;
+    }
+
+    // Maior valor que cai na posição
+    static long highestValue(int index) {
+        return index + 1 < BUCKETS ? lowestValue(index + 1) - 1 : Long.MAX_VALUE;
+    }
+
+    /**
+     * CLASSE Snapshot
+     * Contagens de um histograma num instante; os valores retornados são o limite superior da faixa.
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long total;
+
+        Snapshot(long[] counts) {
+            this.counts = counts;
+            long total = 0;
+            for (long count : counts)
+                total += count;
+            this.total = total;
+        }
+
+        /** Quantidade de latências registradas */
+        public long count() {
+            return total;
+        }
+
+        /** Latência (ns) abaixo da qual estão percentile% das medidas, ou 0 se não houver medidas */
+        public long valueAt(double percentile) {
+            if (total == 0)
+                return 0;
+            long rank = Math.max(1, (long) Math.ceil(Math.min(100, percentile) / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank)
+                    return highestValue(i);
+            }
+            return highestValue(counts.length - 1);
+        }
+
+        /** Maior latência registrada (ns), pela faixa */
+        public long max() {
+            for (int i = counts.length - 1; i >= 0; i--)
+                if (counts[i] != 0)
+                    return highestValue(i);
+            return 0;
+        }
+
+        /** Média das latências (ns), usando o meio de cada faixa */
+        public double mean() {
+            if (total == 0)
+                return 0;
+            double sum = 0;
+            for (int i = 0; i < counts.length; i++)
+                if (counts[i] != 0)
+                    sum += counts[i] * ((lowestValue(i) + (double) highestValue(i)) / 2);
+            return sum / total;
+        }
+    }
+}
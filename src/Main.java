@@ -3,6 +3,12 @@ import java.util.Scanner;
 public class Main {
 
     public static void main(String[] args) {
+        // com argumentos roda o modo de comandos (ver BatchMode) em vez do menu
+        if (args.length > 0) {
+            BatchMode.run(TreeEngine.BST, args);
+            return;
+        }
+
         Scanner scan = new Scanner(System.in);
         BinarySearchTree tree = new BinarySearchTree();
         int op;
@@ -40,7 +46,7 @@ public class Main {
                 case 3 -> {
                     System.out.println("Informe um valor inteiro:");
                     value = scan.nextInt();
-                    if (tree.contains(value) != null)
+                    if (tree.contains(value))
                         System.out.print("Valor encontrado!");
                     else
                         System.out.println("Valor não encontrado!");
@@ -55,7 +61,8 @@ public class Main {
                     tree.orders();
                 }
                 case 7 -> {
-                    int start, end, sum;
+                    int start, end;
+                    long sum;
                     System.out.println("Informe um valor inteiro:");
                     start = scan.nextInt();
                     System.out.println("Informe outro valor inteiro:");
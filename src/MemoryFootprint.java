@@ -0,0 +1,144 @@
+// Imports
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * CLASSE MemoryFootprint
+ * Memória retida por um motor de IntOrderedSet (ver memoryFootprint()), calculada pelo layout real dos
+ * objetos nesta JVM e não por amostragem do heap.
+ *
+ * O tamanho de cada objeto sai dos campos da classe (lidos por reflexão) e das opções da JVM:
+ * - cabeçalho de 12 bytes com compressed class pointers (16 sem), e 16 bytes nos vetores (24 sem)
+ * - referências de 4 bytes com compressed oops (8 sem, ou com heap acima de ~32 GB)
+ * - tudo arredondado para o alinhamento dos objetos (ObjectAlignmentInBytes, normalmente 8)
+ *
+ * O main compara o cálculo com a memória usada de fato ao encher cada motor.
+ */
+public final class MemoryFootprint {
+    public static final boolean COMPRESSED_OOPS = Boolean.parseBoolean(vmOption("UseCompressedOops", "true"));
+    public static final boolean COMPRESSED_CLASS_POINTERS = Boolean.parseBoolean(vmOption("UseCompressedClassPointers", "true"));
+    public static final int ALIGNMENT = Integer.parseInt(vmOption("ObjectAlignmentInBytes", "8"));
+    public static final int REFERENCE_SIZE = COMPRESSED_OOPS ? 4 : 8;
+    public static final int HEADER_SIZE = COMPRESSED_CLASS_POINTERS ? 12 : 16;
+    public static final int ARRAY_HEADER_SIZE = COMPRESSED_CLASS_POINTERS ? 16 : 24;
+
+    private static final ClassValue<Long> INSTANCE_SIZES = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> type) {
+            return computeInstanceSize(type);
+        }
+    };
+
+    public final String engine;
+    public final int keys;
+    public final long totalBytes;
+
+    public MemoryFootprint(String engine, int keys, long totalBytes) {
+        this.engine = engine;
+        this.keys = keys;
+        this.totalBytes = totalBytes;
+    }
+
+    /** Bytes por chave (0 para o conjunto vazio) */
+    public double bytesPerKey() {
+        return keys == 0 ? 0 : (double) totalBytes / keys;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "%s: %d chaves, %d bytes (%.1f bytes/chave)", engine, keys, totalBytes, bytesPerKey());
+    }
+
+    // ------------- Layout dos objetos ------------- //
+
+    /** Tamanho de uma instância da classe (sem os objetos que ela referencia) */
+    public static long instanceSize(Class<?> type) {
+        return INSTANCE_SIZES.get(type);
+    }
+
+    /** Tamanho de um vetor com o tipo de elemento e o comprimento informados */
+    public static long arraySize(Class<?> componentType, int length) {
+        return align(ARRAY_HEADER_SIZE + (long) fieldSize(componentType) * length);
+    }
+
+    private static long computeInstanceSize(Class<?> type) {
+        long fields = 0;
+        long small = 0;
+        boolean wide = false;
+        for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()))
+                    continue;
+                int size = fieldSize(field.getType());
+                fields += size;
+                if (size == 8)
+                    wide = true;
+                else
+                    small += size;
+            }
+        }
+        // long/double ficam alinhados em 8: depois de um cabeçalho de 12 a lacuna de 4 bytes só é
+        // aproveitada se houver campos menores para preenchê-la
+        long gap = wide && HEADER_SIZE % 8 != 0 && small < 4 ? 4 - small : 0;
+        return align(HEADER_SIZE + fields + gap);
+    }
+
+    private static int fieldSize(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        if (type == byte.class || type == boolean.class)
+            return 1;
+        return REFERENCE_SIZE;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    private static String vmOption(String name, String fallback) {
+        try {
+            return ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class).getVMOption(name).getValue();
+        } catch (RuntimeException e) {
+            // JVM sem essas opções (não HotSpot): usa o padrão de uma JVM 64 bits com heap pequeno
+            return fallback;
+        }
+    }
+
+    // Enche cada motor com chaves aleatórias e compara o calculado com o heap usado de fato:
+    // java MemoryFootprint [quantidade de chaves]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = new Random(42).ints(n).toArray();
+        System.out.printf("compressed oops: %b, compressed class pointers: %b, alinhamento: %d%n",
+                COMPRESSED_OOPS, COMPRESSED_CLASS_POINTERS, ALIGNMENT);
+        System.out.printf("%-18s %12s %14s %14s %14s%n", "engine", "chaves", "calculado", "bytes/chave", "medido");
+        for (TreeEngine engine : TreeEngine.values()) {
+            long before = usedMemory();
+            IntOrderedSet set = engine.create();
+            for (int key : keys)
+                set.add(key);
+            long measured = usedMemory() - before;
+            MemoryFootprint footprint = set.memoryFootprint();
+            System.out.printf(Locale.ROOT, "%-18s %12d %14d %14.1f %14d%n", engine.label, footprint.keys,
+                    footprint.totalBytes, footprint.bytesPerKey(), measured);
+            // mantém o conjunto vivo até depois da medição
+            if (set.size() < 0)
+                System.out.println(set);
+        }
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,183 @@
+// Imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * CLASSE MutationLog
+ * Log binário de alterações (add/remove) gravado antes de aplicá-las na árvore, com commit em grupo:
+ * os registros ficam num buffer e vão para o disco (com um único fsync) quando o lote enche, quando a
+ * janela de tempo passa ou quando commit() é chamado. Assim o custo do fsync é dividido pelo lote, e
+ * uma queda perde no máximo o lote em aberto.
+ *
+ * Formato: uma sequência de lotes [quantidade int][registros][CRC32 int dos registros], cada registro
+ * com a operação (byte) e o valor (int). Um lote cortado no meio por uma queda não passa no tamanho ou
+ * no CRC, e o replay descarta ele e tudo o que vem depois.
+ */
+public class MutationLog implements Closeable {
+    public static final byte ADD = 1;
+    public static final byte REMOVE = 2;
+
+    private static final int RECORD_SIZE = 5;
+    private static final int BATCH_OVERHEAD = 8;
+
+    // Recebe cada alteração lida no replay
+    public interface Handler {
+        void apply(byte op, int value);
+    }
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final int batchSize;
+    private final CRC32 crc = new CRC32();
+    // registros no buffer ainda não gravados
+    private int pending;
+    // grava os lotes parados há mais que a janela (null se a janela for 0)
+    private final ScheduledExecutorService flusher;
+    // erro do flusher, relançado no próximo append/commit
+    private IOException flushError;
+
+    /**
+     * Abrir (ou criar) o log para acrescentar lotes de até batchSize registros; com windowMillis > 0
+     * um lote incompleto também é gravado depois dessa janela de tempo.
+     */
+    public MutationLog(Path file, int batchSize, long windowMillis) throws IOException {
+        if (batchSize < 1)
+            throw new IllegalArgumentException("O lote precisa ter pelo menos um registro");
+        this.batchSize = batchSize;
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        buffer = ByteBuffer.allocateDirect(BATCH_OVERHEAD + batchSize * RECORD_SIZE);
+        buffer.position(4);
+
+        if (windowMillis > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "mutation-log-flusher");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly, windowMillis, windowMillis, TimeUnit.MILLISECONDS);
+        } else
+            flusher = null;
+    }
+
+    /** Acrescentar uma alteração ao lote atual, gravando o lote se ele encher */
+    public synchronized void append(byte op, int value) throws IOException {
+        checkFlushError();
+        buffer.put(op).putInt(value);
+        if (++pending == batchSize)
+            commit();
+    }
+
+    /** Gravar o lote atual e esperar o fsync */
+    public synchronized void commit() throws IOException {
+        checkFlushError();
+        if (pending == 0)
+            return;
+
+        int end = buffer.position();
+        buffer.putInt(0, pending);
+        crc.reset();
+        crc.update(buffer.duplicate().position(4).limit(end));
+        buffer.putInt((int) crc.getValue()).flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        // só os dados precisam ir para o disco; os metadados do arquivo não
+        channel.force(false);
+
+        buffer.clear().position(4);
+        pending = 0;
+    }
+
+    private synchronized void flushQuietly() {
+        try {
+            if (flushError == null)
+                commit();
+        } catch (IOException e) {
+            flushError = e;
+        }
+    }
+
+    private void checkFlushError() throws IOException {
+        if (flushError != null)
+            throw new IOException("Falha ao gravar o log de alterações", flushError);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (flusher != null)
+            flusher.shutdownNow();
+        try {
+            commit();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reaplicar as alterações de um log, em ordem. Um lote incompleto ou com CRC errado no final
+     * (queda no meio da gravação) é cortado do arquivo. Retorna quantas alterações foram aplicadas.
+     */
+    public static long replay(Path file, Handler handler) throws IOException {
+        if (!Files.exists(file))
+            return 0;
+
+        long applied = 0;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(4);
+            ByteBuffer batch = ByteBuffer.allocate(0);
+            CRC32 crc = new CRC32();
+
+            while (position + 4 <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                int count = header.getInt(0);
+                long length = (long) count * RECORD_SIZE + 4;
+                if (count <= 0 || position + 4 + length > size)
+                    break;
+
+                if (batch.capacity() < length)
+                    batch = ByteBuffer.allocate((int) length);
+                batch.clear().limit((int) length);
+                readFully(channel, batch, position + 4);
+
+                crc.reset();
+                crc.update(batch.array(), 0, count * RECORD_SIZE);
+                if ((int) crc.getValue() != batch.getInt(count * RECORD_SIZE))
+                    break;
+
+                for (int i = 0; i < count; i++)
+                    handler.apply(batch.get(i * RECORD_SIZE), batch.getInt(i * RECORD_SIZE + 1));
+                applied += count;
+                position += 4 + length;
+            }
+
+            // descarta a cauda inválida para os próximos lotes continuarem de um ponto válido
+            if (position < size) {
+                channel.truncate(position);
+                channel.force(true);
+            }
+        }
+        return applied;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new IOException("Fim inesperado do log de alterações");
+            position += read;
+        }
+        buffer.flip();
+    }
+}
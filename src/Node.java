@@ -1,5 +1,9 @@
 public class Node {
-    public Integer element;
+    // int primitivo: o add não cria um Integer por chave e as comparações são sempre por valor
+    public int element;
     public Node left;
     public Node right;
+    // agregados da subárvore que começa neste nodo (quantidade de nodos e soma dos valores)
+    public int count;
+    public long sum;
 }
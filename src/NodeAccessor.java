@@ -0,0 +1,29 @@
+/**
+ * INTERFACE NodeAccessor
+ * Acesso aos campos dos nodos de uma árvore binária, para que algoritmos como TreeStats funcionem
+ * tanto com o Node da BinarySearchTree quanto com o AVLTree.Node.
+ */
+public interface NodeAccessor<N> {
+    NodeAccessor<Node> BST = new NodeAccessor<Node>() {
+        public Node left(Node node) { return node.left; }
+        public Node right(Node node) { return node.right; }
+        public int element(Node node) { return node.element; }
+        public int size(Node node) { return node == null ? 0 : node.count; }
+    };
+
+    NodeAccessor<AVLTree.Node> AVL = new NodeAccessor<AVLTree.Node>() {
+        public AVLTree.Node left(AVLTree.Node node) { return node.left; }
+        public AVLTree.Node right(AVLTree.Node node) { return node.right; }
+        public int element(AVLTree.Node node) { return node.element; }
+        public int size(AVLTree.Node node) { return node == null ? 0 : node.size; }
+    };
+
+    N left(N node);
+
+    N right(N node);
+
+    int element(N node);
+
+    // quantidade de nodos da subárvore (0 para nulo)
+    int size(N node);
+}
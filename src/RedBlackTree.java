@@ -0,0 +1,398 @@
+// Imports
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * CLASSE RedBlackTree
+ * Árvore rubro-negra de int (Cormen et al., cap. 13), mais um motor de IntOrderedSet.
+ *
+ * Comparada com a AVLTree, faz no máximo duas rotações por add e três por remove, ao custo de uma
+ * árvore um pouco mais alta (até 2 log n). Cada nodo guarda o pai (o percurso em ordem anda pelos pais,
+ * sem pilha) e o tamanho da subárvore (countBetween em O(log n)).
+ *
+ * As folhas são um nodo sentinela (nil) preto, da própria árvore, como no livro.
+ */
+public class RedBlackTree implements IntOrderedSet {
+    private final Node nil = new Node(0);
+    private Node root = nil;
+
+    public RedBlackTree() {
+        nil.size = 0;
+        nil.red = false;
+        nil.left = nil.right = nil.parent = nil;
+    }
+
+    /** Adicionar elementos na árvore */
+    @Override
+    public boolean add(int value) {
+        Node parent = nil;
+        Node current = root;
+        while (current != nil) {
+            if (value == current.element)
+                return false;
+            parent = current;
+            current = value < current.element ? current.left : current.right;
+        }
+
+        Node node = new Node(value);
+        node.left = node.right = nil;
+        node.parent = parent;
+        if (parent == nil)
+            root = node;
+        else if (value < parent.element)
+            parent.left = node;
+        else
+            parent.right = node;
+
+        // todos os ancestrais ganham um nodo na subárvore
+        for (Node ancestor = parent; ancestor != nil; ancestor = ancestor.parent)
+            ancestor.size++;
+        insertFixup(node);
+        return true;
+    }
+
+    // Corrige dois vermelhos seguidos subindo pela árvore (recolorindo) e rotacionando no máximo duas vezes
+    private void insertFixup(Node node) {
+        while (node.parent.red) {
+            Node parent = node.parent;
+            Node grandparent = parent.parent;
+            if (parent == grandparent.left) {
+                Node uncle = grandparent.right;
+                if (uncle.red) {
+                    parent.red = uncle.red = false;
+                    grandparent.red = true;
+                    node = grandparent;
+                } else {
+                    if (node == parent.right) {
+                        node = parent;
+                        rotateLeft(node);
+                        parent = node.parent;
+                    }
+                    parent.red = false;
+                    grandparent.red = true;
+                    rotateRight(grandparent);
+                }
+            } else {
+                Node uncle = grandparent.left;
+                if (uncle.red) {
+                    parent.red = uncle.red = false;
+                    grandparent.red = true;
+                    node = grandparent;
+                } else {
+                    if (node == parent.left) {
+                        node = parent;
+                        rotateRight(node);
+                        parent = node.parent;
+                    }
+                    parent.red = false;
+                    grandparent.red = true;
+                    rotateLeft(grandparent);
+                }
+            }
+        }
+        root.red = false;
+    }
+
+    /** Remover um elemento da árvore */
+    @Override
+    public boolean remove(int value) {
+        Node node = find(value);
+        if (node == nil)
+            return false;
+
+        // nodo que sai fisicamente da árvore: o próprio ou, com dois filhos, o sucessor
+        Node removed = node.left == nil || node.right == nil ? node : minimum(node.right);
+        for (Node ancestor = removed; ancestor != nil; ancestor = ancestor.parent)
+            ancestor.size--;
+
+        boolean removedRed = removed.red;
+        Node child;
+        if (node.left == nil) {
+            child = node.right;
+            transplant(node, node.right);
+        } else if (node.right == nil) {
+            child = node.left;
+            transplant(node, node.left);
+        } else {
+            child = removed.right;
+            if (removed.parent == node)
+                // o sentinela também recebe o pai, para o deleteFixup conseguir subir
+                child.parent = removed;
+            else {
+                transplant(removed, removed.right);
+                removed.right = node.right;
+                removed.right.parent = removed;
+            }
+            transplant(node, removed);
+            removed.left = node.left;
+            removed.left.parent = removed;
+            removed.red = node.red;
+            removed.size = node.size;
+        }
+
+        if (!removedRed)
+            deleteFixup(child);
+        return true;
+    }
+
+    // Devolve o preto que saiu com o nodo removido, subindo até achar um vermelho ou a raiz
+    private void deleteFixup(Node node) {
+        while (node != root && !node.red) {
+            Node parent = node.parent;
+            if (node == parent.left) {
+                Node sibling = parent.right;
+                if (sibling.red) {
+                    sibling.red = false;
+                    parent.red = true;
+                    rotateLeft(parent);
+                    sibling = parent.right;
+                }
+                if (!sibling.left.red && !sibling.right.red) {
+                    sibling.red = true;
+                    node = parent;
+                } else {
+                    if (!sibling.right.red) {
+                        sibling.left.red = false;
+                        sibling.red = true;
+                        rotateRight(sibling);
+                        sibling = parent.right;
+                    }
+                    sibling.red = parent.red;
+                    parent.red = false;
+                    sibling.right.red = false;
+                    rotateLeft(parent);
+                    node = root;
+                }
+            } else {
+                Node sibling = parent.left;
+                if (sibling.red) {
+                    sibling.red = false;
+                    parent.red = true;
+                    rotateRight(parent);
+                    sibling = parent.left;
+                }
+                if (!sibling.right.red && !sibling.left.red) {
+                    sibling.red = true;
+                    node = parent;
+                } else {
+                    if (!sibling.left.red) {
+                        sibling.right.red = false;
+                        sibling.red = true;
+                        rotateLeft(sibling);
+                        sibling = parent.left;
+                    }
+                    sibling.red = parent.red;
+                    parent.red = false;
+                    sibling.left.red = false;
+                    rotateRight(parent);
+                    node = root;
+                }
+            }
+        }
+        node.red = false;
+    }
+
+    // Coloca replacement no lugar de node, no pai de node
+    private void transplant(Node node, Node replacement) {
+        if (node.parent == nil)
+            root = replacement;
+        else if (node == node.parent.left)
+            node.parent.left = replacement;
+        else
+            node.parent.right = replacement;
+        replacement.parent = node.parent;
+    }
+
+    private void rotateLeft(Node x) {
+        Node y = x.right;
+        x.right = y.left;
+        if (y.left != nil)
+            y.left.parent = x;
+        y.parent = x.parent;
+        if (x.parent == nil)
+            root = y;
+        else if (x == x.parent.left)
+            x.parent.left = y;
+        else
+            x.parent.right = y;
+        y.left = x;
+        x.parent = y;
+
+        // y assume a subárvore inteira de x
+        y.size = x.size;
+        x.size = 1 + x.left.size + x.right.size;
+    }
+
+    private void rotateRight(Node x) {
+        Node y = x.left;
+        x.left = y.right;
+        if (y.right != nil)
+            y.right.parent = x;
+        y.parent = x.parent;
+        if (x.parent == nil)
+            root = y;
+        else if (x == x.parent.right)
+            x.parent.right = y;
+        else
+            x.parent.left = y;
+        y.right = x;
+        x.parent = y;
+
+        y.size = x.size;
+        x.size = 1 + x.left.size + x.right.size;
+    }
+
+    private Node find(int value) {
+        Node current = root;
+        while (current != nil && current.element != value)
+            current = value < current.element ? current.left : current.right;
+        return current;
+    }
+
+    private Node minimum(Node node) {
+        while (node.left != nil)
+            node = node.left;
+        return node;
+    }
+
+    /** Verificar se um elemento está armazenado na árvore ou não */
+    @Override
+    public boolean contains(int value) {
+        return find(value) != nil;
+    }
+
+    /** Verificar quantos elementos tem na árvore */
+    @Override
+    public int size() {
+        return root.size;
+    }
+
+    /** Verificar qual é a altura da árvore (percorre a árvore, pois a altura não é guardada nos nodos) */
+    @Override
+    public int height() {
+        int height = -1;
+        int depth = -1;
+        Node current = root;
+        Node previous = nil;
+        // percurso em profundidade pelos pais, sem pilha
+        while (current != nil) {
+            Node next;
+            if (previous == current.parent) {
+                depth++;
+                height = Math.max(height, depth);
+                next = current.left != nil ? current.left : current.right != nil ? current.right : current.parent;
+            } else if (previous == current.left && current.right != nil)
+                next = current.right;
+            else
+                next = current.parent;
+
+            if (next == current.parent)
+                depth--;
+            previous = current;
+            current = next;
+        }
+        return height;
+    }
+
+    /** Limpar o conteúdo da árvore */
+    @Override
+    public void clear() {
+        root = nil;
+    }
+
+    /** Percorrer os elementos em ordem crescente, andando pelos pais (memória extra O(1)) */
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return new PrimitiveIterator.OfInt() {
+            private Node next = root == nil ? nil : minimum(root);
+
+            @Override
+            public boolean hasNext() {
+                return next != nil;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next == nil)
+                    throw new NoSuchElementException();
+                Node node = next;
+                next = successor(node);
+                return node.element;
+            }
+        };
+    }
+
+    private Node successor(Node node) {
+        if (node.right != nil)
+            return minimum(node.right);
+        Node parent = node.parent;
+        while (parent != nil && node == parent.right) {
+            node = parent;
+            parent = parent.parent;
+        }
+        return parent;
+    }
+
+    /** Somar os valores no intervalo [start, end), percorrendo só os nodos do intervalo */
+    @Override
+    public long sumBetween(int start, int end) {
+        long sum = 0;
+        for (Node node = ceiling(start); node != nil && node.element < end; node = successor(node))
+            sum += node.element;
+        return sum;
+    }
+
+    /** Contar os valores no intervalo [start, end) pelos tamanhos das subárvores, em O(log n) */
+    @Override
+    public int countBetween(int start, int end) {
+        if (start >= end)
+            return 0;
+        return countLessThan(end) - countLessThan(start);
+    }
+
+    private int countLessThan(int value) {
+        int count = 0;
+        Node current = root;
+        while (current != nil) {
+            if (current.element < value) {
+                count += current.left.size + 1;
+                current = current.right;
+            } else
+                current = current.left;
+        }
+        return count;
+    }
+
+    /** Memória retida pela árvore: um nodo por valor mais o sentinela nil */
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        long bytes = MemoryFootprint.instanceSize(RedBlackTree.class) + (size() + 1L) * MemoryFootprint.instanceSize(Node.class);
+        return new MemoryFootprint("RedBlackTree", size(), bytes);
+    }
+
+    // Menor nodo com elemento >= value (nil se não houver)
+    private Node ceiling(int value) {
+        Node result = nil;
+        Node current = root;
+        while (current != nil) {
+            if (current.element >= value) {
+                result = current;
+                current = current.left;
+            } else
+                current = current.right;
+        }
+        return result;
+    }
+
+    static class Node {
+        int element, size;
+        boolean red;
+        Node left, right, parent;
+
+        Node(int element) {
+            this.element = element;
+            size = 1;
+            red = true;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+// Imports
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+/**
+ * CLASSE TimedIntOrderedSet
+ * Envolve qualquer motor de IntOrderedSet e mede a latência de add, remove, contains e do percurso em
+ * ordem (forEach), cada operação num LatencyHistogram próprio. É opcional: ligado com
+ * -Dtree.latency=true, o TreeEngine.createConfigured() já devolve o conjunto envolvido.
+ *
+ * Os outros métodos só repassam para o conjunto. O iterator/intStream também não são medidos, porque
+ * o tempo depende de quem consome os valores.
+ */
+public class TimedIntOrderedSet implements IntOrderedSet {
+    public static final String PROPERTY = "tree.latency";
+
+    public enum Operation { ADD, REMOVE, CONTAINS, IN_ORDER }
+
+    private final IntOrderedSet set;
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    // um campo por operação, para o caminho quente não passar pelo mapa
+    private final LatencyHistogram add = new LatencyHistogram();
+    private final LatencyHistogram remove = new LatencyHistogram();
+    private final LatencyHistogram contains = new LatencyHistogram();
+    private final LatencyHistogram inOrder = new LatencyHistogram();
+
+    public TimedIntOrderedSet(IntOrderedSet set) {
+        this.set = set;
+        histograms.put(Operation.ADD, add);
+        histograms.put(Operation.REMOVE, remove);
+        histograms.put(Operation.CONTAINS, contains);
+        histograms.put(Operation.IN_ORDER, inOrder);
+    }
+
+    /** Retornar o conjunto envolvido */
+    public IntOrderedSet delegate() {
+        return set;
+    }
+
+    @Override
+    public boolean add(int value) {
+        long start = System.nanoTime();
+        boolean added = set.add(value);
+        add.record(System.nanoTime() - start);
+        return added;
+    }
+
+    @Override
+    public boolean remove(int value) {
+        long start = System.nanoTime();
+        boolean removed = set.remove(value);
+        remove.record(System.nanoTime() - start);
+        return removed;
+    }
+
+    @Override
+    public boolean contains(int value) {
+        long start = System.nanoTime();
+        boolean found = set.contains(value);
+        contains.record(System.nanoTime() - start);
+        return found;
+    }
+
+    /** Percorrer em ordem crescente; o percurso inteiro conta como uma medida de IN_ORDER */
+    @Override
+    public void forEach(IntConsumer action) {
+        long start = System.nanoTime();
+        set.forEach(action);
+        inOrder.record(System.nanoTime() - start);
+    }
+
+    @Override
+    public int size() {
+        return set.size();
+    }
+
+    @Override
+    public int height() {
+        return set.height();
+    }
+
+    @Override
+    public void clear() {
+        set.clear();
+    }
+
+    @Override
+    public PrimitiveIterator.OfInt iterator() {
+        return set.iterator();
+    }
+
+    @Override
+    public Spliterator.OfInt spliterator() {
+        return set.spliterator();
+    }
+
+    @Override
+    public long sumBetween(int start, int end) {
+        return set.sumBetween(start, end);
+    }
+
+    @Override
+    public int countBetween(int start, int end) {
+        return set.countBetween(start, end);
+    }
+
+    // Só o conjunto envolvido; os histogramas ficam de fora
+    @Override
+    public MemoryFootprint memoryFootprint() {
+        return set.memoryFootprint();
+    }
+
+    /** Retornar as latências de uma operação desde o último reset */
+    public LatencyHistogram.Snapshot latencies(Operation operation) {
+        return histograms.get(operation).snapshot();
+    }
+
+    /** Descartar as latências de todas as operações */
+    public void resetLatencies() {
+        for (LatencyHistogram histogram : histograms.values())
+            histogram.reset();
+    }
+
+    /** Tabela de percentis (ns) de cada operação desde o último reset */
+    public String percentileTable() {
+        return table(false);
+    }
+
+    /** Tabela de percentis (ns) do intervalo desde o último reset, começando um novo intervalo */
+    public String intervalTable() {
+        return table(true);
+    }
+
+    private String table(boolean interval) {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%-9s %12s", "op", "count"));
+        for (double percentile : LatencyHistogram.PERCENTILES)
+            table.append(String.format(Locale.ROOT, " %10s", "p" + format(percentile)));
+        table.append(String.format(Locale.ROOT, " %10s%n", "max"));
+
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = histograms.get(operation);
+            LatencyHistogram.Snapshot snapshot = interval ? histogram.intervalSnapshot() : histogram.snapshot();
+            table.append(String.format(Locale.ROOT, "%-9s %12d", operation, snapshot.count()));
+            for (double percentile : LatencyHistogram.PERCENTILES)
+                table.append(String.format(Locale.ROOT, " %10d", snapshot.valueAt(percentile)));
+            table.append(String.format(Locale.ROOT, " %10d%n", snapshot.max()));
+        }
+        return table.toString();
+    }
+
+    // 50.0 -> "50", 99.9 -> "99.9"
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile) ? String.valueOf((long) percentile) : String.valueOf(percentile);
+    }
+
+    // Mostra a tabela de latências da AVLTree e da BinarySearchTree com chaves aleatórias:
+    // java TimedIntOrderedSet [quantidade de chaves]
+    public static void main(String[] args) {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int[] keys = new Random(42).ints(n).toArray();
+        for (TreeEngine engine : new TreeEngine[]{TreeEngine.AVL, TreeEngine.BST}) {
+            TimedIntOrderedSet set = new TimedIntOrderedSet(engine.create());
+            // a primeira rodada só aquece o JIT
+            for (int round = 0; round < 2; round++) {
+                set.resetLatencies();
+                for (int key : keys)
+                    set.add(key);
+                for (int key : keys)
+                    set.contains(key);
+                for (int i = 0; i < 10; i++)
+                    set.forEach(value -> { });
+                for (int key : keys)
+                    set.remove(key);
+            }
+            System.out.printf("%s, %d chaves aleatórias (ns)%n%s%n", engine.label, n, set.percentileTable());
+        }
+    }
+}
@@ -0,0 +1,330 @@
+// Imports
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.function.IntSupplier;
+
+/**
+ * CLASSE TreeBenchmark
+ * Mede todos os motores de IntOrderedSet (ver TreeEngine) e o TreeSet<Integer> (referência) com fluxos
+ * de chaves ordenados, invertidos, uniformes e Zipf, em vários tamanhos, pela mesma interface.
+ *
+ * Para cada combinação são medidos add, contains, remove, inOrder, consulta de intervalo e height:
+ * - vazão (ops/s), mediana das rodadas medidas depois do aquecimento
+ * - alocação por operação (bytes/op), pelo contador de alocação da thread da JVM
+ * - latência p99 (ns) de cada operação, numa rodada separada com cronômetro por operação
+ *
+ * Uso: java TreeBenchmark [tamanhos separados por vírgula] [rodadas medidas]
+ * Ex.:  java -Xmx8g TreeBenchmark 1000,10000,100000,1000000,10000000 3
+ *
+ * Combinações inviáveis na BinarySearchTree (que não balanceia) aparecem como "n/a": acima de
+ * DEGENERATE_LIMIT chaves ordenadas viram uma lista, e as chaves quentes repetidas da Zipf viram longas
+ * cadeias à esquerda (os iguais vão para a esquerda), as duas com inserção O(n^2).
+ * O height do TreeSet também aparece como "n/a", já que ele não expõe a altura.
+ */
+public class TreeBenchmark {
+    private static final int[] DEFAULT_SIZES = {1_000, 10_000, 100_000, 1_000_000};
+    private static final int DEFAULT_ROUNDS = 3;
+    private static final int WARMUP_ROUNDS = 1;
+
+    private static final int DEGENERATE_LIMIT = 20_000;
+    private static final int RANGE_QUERIES = 1_000;
+    private static final int HEIGHT_CALLS = 1_000;
+    private static final long HEIGHT_WORK = 1L << 24;
+
+    private static final PrintStream OUT = System.out;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    enum Distribution { SORTED, REVERSE, UNIFORM, ZIPF }
+
+    enum Operation { ADD, CONTAINS, REMOVE, IN_ORDER, RANGE, HEIGHT }
+
+    // Operações medidas, comuns a todos os motores e ao TreeSet de referência
+    interface Target {
+        boolean add(int value);
+
+        boolean contains(int value);
+
+        boolean remove(int value);
+
+        void inOrder();
+
+        long range(int start, int end);
+
+        // altura da árvore, ou null se a estrutura não expõe (a linha do height fica "n/a")
+        IntSupplier height();
+    }
+
+    // Um motor de IntOrderedSet (ver TreeEngine) ou o TreeSet<Integer> de referência
+    static class Engine {
+        final String label;
+        // null para o TreeSet
+        final TreeEngine tree;
+
+        Engine(TreeEngine tree) {
+            this.label = tree == null ? "TreeSet<Integer>" : tree.label;
+            this.tree = tree;
+        }
+
+        static List<Engine> all() {
+            List<Engine> engines = new ArrayList<>();
+            for (TreeEngine tree : TreeEngine.values())
+                engines.add(new Engine(tree));
+            engines.add(new Engine(null));
+            return engines;
+        }
+
+        Target create() {
+            return tree == null ? treeSet() : of(tree.create());
+        }
+
+        // Todos os motores passam pela mesma interface; o inOrder percorre os valores sem montar lista
+        private static Target of(IntOrderedSet set) {
+            return new Target() {
+                public boolean add(int value) { return set.add(value); }
+                public boolean contains(int value) { return set.contains(value); }
+                public boolean remove(int value) { return set.remove(value); }
+                public void inOrder() { set.forEach(value -> sink += value); }
+                public long range(int start, int end) { return set.sumBetween(start, end); }
+                public IntSupplier height() { return set::height; }
+            };
+        }
+
+        private static Target treeSet() {
+            TreeSet<Integer> set = new TreeSet<>();
+            return new Target() {
+                public boolean add(int value) { return set.add(value); }
+                public boolean contains(int value) { return set.contains(value); }
+                public boolean remove(int value) { return set.remove(value); }
+                public void inOrder() { for (int value : set) sink += value; }
+                public long range(int start, int end) {
+                    long sum = 0;
+                    for (int value : set.subSet(start, end))
+                        sum += value;
+                    return sum;
+                }
+                // o TreeSet não expõe a altura
+                public IntSupplier height() { return null; }
+            };
+        }
+    }
+
+    // destino de todos os resultados medidos (inclusive os valores do inOrder), para o JIT não descartar
+    // buscas sem efeito colateral como o contains; é mostrado no fim
+    static long sink;
+
+    // Resultado de uma operação numa combinação (motor, distribuição, tamanho)
+    static class Result {
+        final double[] opsPerSecond;
+        final double[] bytesPerOp;
+        long p99 = -1;
+
+        Result(int rounds) {
+            opsPerSecond = new double[rounds];
+            bytesPerOp = new double[rounds];
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray() : DEFAULT_SIZES;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_ROUNDS;
+        run(sizes, rounds);
+    }
+
+    private static void run(int[] sizes, int rounds) {
+        OUT.printf("%-17s %-8s %10s %-9s %15s %12s %12s%n", "engine", "keys", "n", "op", "ops/s", "bytes/op", "p99 (ns)");
+        for (int n : sizes) {
+            for (Distribution distribution : Distribution.values()) {
+                int[] keys = keys(distribution, n, new Random(n));
+                for (Engine engine : Engine.all())
+                    report(engine, distribution, n, measure(engine, distribution, keys, rounds));
+            }
+        }
+        OUT.println("sink: " + sink);
+    }
+
+    private static Result[] measure(Engine engine, Distribution distribution, int[] keys, int rounds) {
+        Operation[] operations = Operation.values();
+        Result[] results = new Result[operations.length];
+        if (engine.tree == TreeEngine.BST && keys.length > DEGENERATE_LIMIT && distribution != Distribution.UNIFORM)
+            return results;
+
+        for (Operation op : operations)
+            results[op.ordinal()] = new Result(rounds);
+        // sem altura (TreeSet), a linha fica "n/a"
+        boolean hasHeight = engine.create().height() != null;
+        if (!hasHeight)
+            results[Operation.HEIGHT.ordinal()] = null;
+        // BinarySearchTree e RedBlackTree calculam a altura percorrendo a árvore, então as chamadas são
+        // limitadas para somar no máximo HEIGHT_WORK nodos visitados
+        int heightCalls = (int) Math.max(1, Math.min(HEIGHT_CALLS, HEIGHT_WORK / Math.max(1, keys.length)));
+
+        int[][] ranges = ranges(keys, new Random(keys.length + 1));
+        for (int round = -WARMUP_ROUNDS; round < rounds; round++) {
+            Target target = engine.create();
+            long[] sample;
+
+            sample = time(() -> { for (int key : keys) sink += target.add(key) ? 1 : 0; });
+            record(results, Operation.ADD, round, sample, keys.length);
+
+            sample = time(() -> { for (int key : keys) sink += target.contains(key) ? 1 : 0; });
+            record(results, Operation.CONTAINS, round, sample, keys.length);
+
+            sample = time(target::inOrder);
+            record(results, Operation.IN_ORDER, round, sample, 1);
+
+            sample = time(() -> { for (int[] range : ranges) sink += target.range(range[0], range[1]); });
+            record(results, Operation.RANGE, round, sample, ranges.length);
+
+            if (hasHeight) {
+                IntSupplier height = target.height();
+                sample = time(() -> { for (int i = 0; i < heightCalls; i++) sink += height.getAsInt(); });
+                record(results, Operation.HEIGHT, round, sample, heightCalls);
+            }
+
+            sample = time(() -> { for (int key : keys) sink += target.remove(key) ? 1 : 0; });
+            record(results, Operation.REMOVE, round, sample, keys.length);
+        }
+
+        // rodada de latência: cada operação cronometrada individualmente
+        Target target = engine.create();
+        long[] latencies = new long[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            sink += target.add(keys[i]) ? 1 : 0;
+            latencies[i] = System.nanoTime() - start;
+        }
+        results[Operation.ADD.ordinal()].p99 = p99(latencies, keys.length);
+
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            sink += target.contains(keys[i]) ? 1 : 0;
+            latencies[i] = System.nanoTime() - start;
+        }
+        results[Operation.CONTAINS.ordinal()].p99 = p99(latencies, keys.length);
+
+        int count = Math.min(keys.length, 100);
+        for (int i = 0; i < count; i++) {
+            long start = System.nanoTime();
+            target.inOrder();
+            latencies[i] = System.nanoTime() - start;
+        }
+        results[Operation.IN_ORDER.ordinal()].p99 = p99(latencies, count);
+
+        for (int i = 0; i < ranges.length && i < latencies.length; i++) {
+            long start = System.nanoTime();
+            sink += target.range(ranges[i][0], ranges[i][1]);
+            latencies[i] = System.nanoTime() - start;
+        }
+        results[Operation.RANGE.ordinal()].p99 = p99(latencies, Math.min(ranges.length, latencies.length));
+
+        if (hasHeight) {
+            IntSupplier height = target.height();
+            for (int i = 0; i < heightCalls && i < latencies.length; i++) {
+                long start = System.nanoTime();
+                sink += height.getAsInt();
+                latencies[i] = System.nanoTime() - start;
+            }
+            results[Operation.HEIGHT.ordinal()].p99 = p99(latencies, Math.min(heightCalls, latencies.length));
+        }
+
+        for (int i = 0; i < keys.length; i++) {
+            long start = System.nanoTime();
+            sink += target.remove(keys[i]) ? 1 : 0;
+            latencies[i] = System.nanoTime() - start;
+        }
+        results[Operation.REMOVE.ordinal()].p99 = p99(latencies, keys.length);
+        return results;
+    }
+
+    // Retorna {nanossegundos, bytes alocados} da execução
+    private static long[] time(Runnable work) {
+        long threadId = Thread.currentThread().getId();
+        long bytes = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        work.run();
+        long elapsed = System.nanoTime() - start;
+        return new long[]{elapsed, THREADS.getThreadAllocatedBytes(threadId) - bytes};
+    }
+
+    private static void record(Result[] results, Operation op, int round, long[] sample, int ops) {
+        if (round < 0)
+            return;
+        Result result = results[op.ordinal()];
+        result.opsPerSecond[round] = ops * 1e9 / Math.max(1, sample[0]);
+        result.bytesPerOp[round] = (double) sample[1] / ops;
+    }
+
+    private static long p99(long[] latencies, int count) {
+        long[] sorted = Arrays.copyOf(latencies, count);
+        Arrays.sort(sorted);
+        return sorted[Math.min(count - 1, (int) Math.ceil(count * 0.99) - 1)];
+    }
+
+    private static double median(double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static void report(Engine engine, Distribution distribution, int n, Result[] results) {
+        for (Operation op : Operation.values()) {
+            Result result = results[op.ordinal()];
+            if (result == null)
+                OUT.printf("%-17s %-8s %10d %-9s %15s %12s %12s%n", engine.label, distribution, n, op, "n/a", "n/a", "n/a");
+            else
+                OUT.printf("%-17s %-8s %10d %-9s %15.0f %12.1f %12d%n", engine.label, distribution, n, op,
+                        median(result.opsPerSecond), median(result.bytesPerOp), result.p99);
+        }
+    }
+
+    // ------------- Geração das chaves ------------- //
+
+    static int[] keys(Distribution distribution, int n, Random random) {
+        int[] keys = new int[n];
+        switch (distribution) {
+            case SORTED:
+                for (int i = 0; i < n; i++)
+                    keys[i] = i;
+                break;
+            case REVERSE:
+                for (int i = 0; i < n; i++)
+                    keys[i] = n - 1 - i;
+                break;
+            case UNIFORM:
+                for (int i = 0; i < n; i++)
+                    keys[i] = random.nextInt();
+                break;
+            case ZIPF:
+                // aproximação contínua da Zipf com s = 1: P(posição <= k) ~ ln(k + 1) / ln(n + 1)
+                double logN = Math.log(n + 1.0);
+                for (int i = 0; i < n; i++) {
+                    long rank = (long) Math.exp(random.nextDouble() * logN) - 1;
+                    // espalha as posições quentes pelo espaço de chaves
+                    keys[i] = (int) (rank * 0x9E3779B1L);
+                }
+                break;
+        }
+        return keys;
+    }
+
+    // Intervalos [início, fim) entre chaves existentes, cobrindo em média 1% das chaves
+    private static int[][] ranges(int[] keys, Random random) {
+        int[] sorted = keys.clone();
+        Arrays.sort(sorted);
+        int width = Math.max(1, sorted.length / 100);
+        List<int[]> ranges = new ArrayList<>(RANGE_QUERIES);
+        for (int i = 0; i < RANGE_QUERIES; i++) {
+            int from = random.nextInt(sorted.length);
+            int to = Math.min(sorted.length - 1, from + width);
+            ranges.add(new int[]{sorted[from], sorted[to]});
+        }
+        return ranges.toArray(new int[0][]);
+    }
+}
@@ -0,0 +1,162 @@
+// Imports
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CLASSE TreeClient
+ * Cliente do TreeServer. As operações podem ser mandadas uma a uma (add/remove/contains esperam a
+ * resposta) ou em pipeline: send() acumula pedidos num buffer e receive() devolve as respostas na
+ * mesma ordem, mandando antes o que estiver pendente.
+ *
+ * No pipeline, mantenha o número de pedidos sem resposta limitado (algumas centenas): se os dois lados
+ * encherem os buffers do socket escrevendo sem ler, cliente e servidor ficam esperando um pelo outro.
+ *
+ * O main é um gerador de carga: java TreeClient [conexões separadas por vírgula] [segundos] [pipeline] [porta]
+ * Ex.:  java TreeClient 1,10,100,1000 5 32        (sem porta sobe um TreeServer no próprio processo)
+ */
+public class TreeClient implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final SocketChannel channel;
+    private final ByteBuffer requests = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer replies = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /** Conectar ao servidor na porta informada do loopback */
+    public TreeClient(int port) throws IOException {
+        channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        replies.flip();
+    }
+
+    public boolean add(int value) throws IOException {
+        send(TreeServer.ADD, value);
+        return receive();
+    }
+
+    public boolean remove(int value) throws IOException {
+        send(TreeServer.REMOVE, value);
+        return receive();
+    }
+
+    public boolean contains(int value) throws IOException {
+        send(TreeServer.CONTAINS, value);
+        return receive();
+    }
+
+    /** Acumular um pedido sem esperar a resposta (vai para o servidor no flush ou no próximo receive) */
+    public void send(byte op, int value) throws IOException {
+        if (requests.remaining() < TreeServer.REQUEST_SIZE)
+            flush();
+        requests.put(op).putInt(value);
+    }
+
+    /** Mandar os pedidos acumulados */
+    public void flush() throws IOException {
+        requests.flip();
+        while (requests.hasRemaining())
+            channel.write(requests);
+        requests.clear();
+    }
+
+    /** Ler a resposta do pedido mais antigo ainda sem resposta */
+    public boolean receive() throws IOException {
+        if (requests.position() > 0)
+            flush();
+        if (!replies.hasRemaining()) {
+            replies.clear();
+            if (channel.read(replies) < 0)
+                throw new EOFException("Conexão fechada pelo servidor");
+            replies.flip();
+        }
+        return replies.get() == 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // ------------- Gerador de carga ------------- //
+
+    private static final int KEY_RANGE = 1 << 20;
+
+    public static void main(String[] args) throws Exception {
+        int[] connections = args.length > 0 ? Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray() : new int[]{1, 10, 100, 1000};
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int pipeline = args.length > 2 ? Integer.parseInt(args[2]) : 32;
+        TreeServer embedded = args.length > 3 ? null : new TreeServer(0);
+        int port = embedded == null ? Integer.parseInt(args[3]) : embedded.port();
+
+        System.out.printf("pipeline de %d pedidos, 80%% contains / 10%% add / 10%% remove, chaves em [0, %d), %d s por rodada%n",
+                pipeline, KEY_RANGE, seconds);
+        System.out.printf("%-10s %12s %10s %10s %10s %10s %10s%n", "conexões", "ops/s", "p50", "p99", "p99.9", "max", "(µs)");
+        for (int count : connections)
+            load(port, count, seconds, pipeline);
+
+        if (embedded != null)
+            embedded.close();
+    }
+
+    // Uma rodada: count conexões mandando lotes de pipeline pedidos pelo tempo informado
+    private static void load(int port, int count, int seconds, int pipeline) throws Exception {
+        LatencyHistogram latencies = new LatencyHistogram();
+        LongAdder operations = new LongAdder();
+        // todas as conexões são abertas antes de começar a contar o tempo
+        List<TreeClient> clients = new ArrayList<>(count);
+        for (int i = 0; i < count; i++)
+            clients.add(new TreeClient(port));
+        long warmupEnd = System.nanoTime() + 1_000_000_000L;
+        long end = warmupEnd + seconds * 1_000_000_000L;
+
+        List<Thread> threads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TreeClient client = clients.get(i);
+            SplittableRandom random = new SplittableRandom(i);
+            Thread thread = new Thread(() -> {
+                try (client) {
+                    while (System.nanoTime() < end) {
+                        for (int j = 0; j < pipeline; j++) {
+                            int op = random.nextInt(10);
+                            client.send(op == 0 ? TreeServer.ADD : op == 1 ? TreeServer.REMOVE : TreeServer.CONTAINS,
+                                    random.nextInt(KEY_RANGE));
+                        }
+                        long sent = System.nanoTime();
+                        client.flush();
+                        // a latência de cada pedido vai do envio do lote até a chegada da sua resposta
+                        for (int j = 0; j < pipeline; j++) {
+                            client.receive();
+                            if (sent >= warmupEnd)
+                                latencies.record(System.nanoTime() - sent);
+                        }
+                        if (sent >= warmupEnd)
+                            operations.add(pipeline);
+                    }
+                } catch (IOException e) {
+                    System.err.println("TreeClient: " + e);
+                }
+            }, "tree-load-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+
+        LatencyHistogram.Snapshot snapshot = latencies.snapshot();
+        System.out.printf(Locale.ROOT, "%-10d %12.0f %10.1f %10.1f %10.1f %10.1f%n", count, operations.sum() / (double) seconds,
+                snapshot.valueAt(50) / 1e3, snapshot.valueAt(99) / 1e3, snapshot.valueAt(99.9) / 1e3, snapshot.max() / 1e3);
+    }
+}
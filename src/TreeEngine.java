@@ -0,0 +1,65 @@
+// Imports
+import java.util.Locale;
+
+/**
+ * ENUM TreeEngine
+ * Fábrica dos motores de IntOrderedSet. O motor padrão pode ser escolhido pela propriedade de sistema
+ * tree.engine (ex.: java -Dtree.engine=red_black ...), sem mudar o código de quem usa o conjunto.
+ */
+public enum TreeEngine {
+    BST("BinarySearchTree") {
+        public IntOrderedSet create() {
+            return new BinarySearchTree();
+        }
+    },
+    AVL("AVLTree") {
+        public IntOrderedSet create() {
+            return new AVLTree();
+        }
+    },
+    RED_BLACK("RedBlackTree") {
+        public IntOrderedSet create() {
+            return new RedBlackTree();
+        }
+    },
+    COMPACT_AVL("CompactAVLTree") {
+        public IntOrderedSet create() {
+            return new CompactAVLTree();
+        }
+    },
+    B_PLUS("BPlusTree") {
+        public IntOrderedSet create() {
+            return new BPlusTree();
+        }
+    };
+
+    public static final String PROPERTY = "tree.engine";
+    private static final TreeEngine DEFAULT = AVL;
+
+    public final String label;
+
+    TreeEngine(String label) {
+        this.label = label;
+    }
+
+    /** Criar um conjunto vazio deste motor */
+    public abstract IntOrderedSet create();
+
+    /** Retornar o motor configurado em tree.engine (AVL se não houver) */
+    public static TreeEngine configured() {
+        String name = System.getProperty(PROPERTY);
+        if (name == null || name.isBlank())
+            return DEFAULT;
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Motor de árvore desconhecido em " + PROPERTY + ": " + name, e);
+        }
+    }
+
+    /** Criar um conjunto vazio do motor configurado (medindo as latências se tree.latency=true) */
+    public static IntOrderedSet createConfigured() {
+        IntOrderedSet set = configured().create();
+        return Boolean.getBoolean(TimedIntOrderedSet.PROPERTY) ? new TimedIntOrderedSet(set) : set;
+    }
+}
@@ -0,0 +1,207 @@
+// Imports
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * CLASSE TreeMetrics
+ * Contadores do caminho quente das árvores: comparações, nodos visitados, rotações simples e duplas,
+ * trocas pelo sucessor no remove e histograma da profundidade das buscas (add/contains/remove).
+ *
+ * Ligados com -Dtree.metrics=true. Desligados (padrão), ENABLED é uma constante false e o JIT remove
+ * os blocos "if (TreeMetrics.ENABLED)" das árvores, então não há custo nenhum. Ligados, cada operação
+ * conta no próprio laço em variáveis locais e soma uma única vez nos LongAdder (contadores divididos
+ * em células por thread, sem disputa entre threads).
+ *
+ * Os contadores são por tipo de árvore (todas as AVLTree somam em AVL) e ficam registrados no
+ * servidor JMX da plataforma como TreeMetrics:type=AVLTree e TreeMetrics:type=BinarySearchTree.
+ */
+public final class TreeMetrics implements TreeMetricsMBean {
+    public static final String PROPERTY = "tree.metrics";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    // uma AVL nunca passa de 45 níveis; na BinarySearchTree degenerada a última posição acumula o resto
+    public static final int DEPTH_BUCKETS = 64;
+
+    public static final TreeMetrics AVL = register("AVLTree");
+    public static final TreeMetrics BST = register("BinarySearchTree");
+
+    private final LongAdder comparisons = new LongAdder();
+    private final LongAdder nodesVisited = new LongAdder();
+    private final LongAdder singleRotations = new LongAdder();
+    private final LongAdder doubleRotations = new LongAdder();
+    private final LongAdder successorSwaps = new LongAdder();
+    private final LongAdder[] depths = new LongAdder[DEPTH_BUCKETS];
+
+    private TreeMetrics() {
+        for (int i = 0; i < DEPTH_BUCKETS; i++)
+            depths[i] = new LongAdder();
+    }
+
+    private static TreeMetrics register(String type) {
+        TreeMetrics metrics = new TreeMetrics();
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, new ObjectName("TreeMetrics:type=" + type));
+            } catch (JMException e) {
+                // sem JMX os contadores continuam disponíveis pelo snapshot()
+                System.err.println("TreeMetrics: não foi possível registrar " + type + ": " + e);
+            }
+        }
+        return metrics;
+    }
+
+    // Uma busca que visitou visited nodos fazendo comparisons comparações de chave
+    void search(int visited, int comparisons) {
+        this.comparisons.add(comparisons);
+        nodesVisited.add(visited);
+        depths[Math.min(visited, DEPTH_BUCKETS - 1)].increment();
+    }
+
+    void singleRotation() {
+        singleRotations.increment();
+    }
+
+    void doubleRotation() {
+        doubleRotations.increment();
+    }
+
+    // O remove de um nodo com dois filhos desceu visited nodos até o sucessor
+    void successorSwap(int visited) {
+        successorSwaps.increment();
+        nodesVisited.add(visited);
+    }
+
+    /** Retornar uma cópia dos contadores (cada um lido separadamente; não é atômica com as operações em curso) */
+    public Snapshot snapshot() {
+        long[] histogram = getSearchDepthHistogram();
+        return new Snapshot(comparisons.sum(), nodesVisited.sum(), singleRotations.sum(), doubleRotations.sum(),
+                successorSwaps.sum(), histogram);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    @Override
+    public long getNodesVisited() {
+        return nodesVisited.sum();
+    }
+
+    @Override
+    public long getSearches() {
+        long searches = 0;
+        for (LongAdder depth : depths)
+            searches += depth.sum();
+        return searches;
+    }
+
+    @Override
+    public double getAverageSearchDepth() {
+        return snapshot().averageSearchDepth();
+    }
+
+    @Override
+    public long getSingleRotations() {
+        return singleRotations.sum();
+    }
+
+    @Override
+    public long getDoubleRotations() {
+        return doubleRotations.sum();
+    }
+
+    @Override
+    public long getSuccessorSwaps() {
+        return successorSwaps.sum();
+    }
+
+    @Override
+    public long[] getSearchDepthHistogram() {
+        long[] histogram = new long[DEPTH_BUCKETS];
+        for (int i = 0; i < DEPTH_BUCKETS; i++)
+            histogram[i] = depths[i].sum();
+        return histogram;
+    }
+
+    /** Zerar os contadores (para medir por intervalo) */
+    @Override
+    public void reset() {
+        comparisons.reset();
+        nodesVisited.reset();
+        singleRotations.reset();
+        doubleRotations.reset();
+        successorSwaps.reset();
+        for (LongAdder depth : depths)
+            depth.reset();
+    }
+
+    /**
+     * CLASSE Snapshot
+     * Valores dos contadores num instante, retornados por metrics() nas árvores.
+     */
+    public static final class Snapshot {
+        public final long comparisons;
+        public final long nodesVisited;
+        public final long singleRotations;
+        public final long doubleRotations;
+        public final long successorSwaps;
+        private final long[] depthHistogram;
+
+        private Snapshot(long comparisons, long nodesVisited, long singleRotations, long doubleRotations,
+                         long successorSwaps, long[] depthHistogram) {
+            this.comparisons = comparisons;
+            this.nodesVisited = nodesVisited;
+            this.singleRotations = singleRotations;
+            this.doubleRotations = doubleRotations;
+            this.successorSwaps = successorSwaps;
+            this.depthHistogram = depthHistogram;
+        }
+
+        // Buscas que visitaram depth nodos (a última posição inclui as mais profundas)
+        public long searchesAtDepth(int depth) {
+            return depth < 0 || depth >= depthHistogram.length ? 0 : depthHistogram[depth];
+        }
+
+        public long[] depthHistogram() {
+            return depthHistogram.clone();
+        }
+
+        public long searches() {
+            long searches = 0;
+            for (long count : depthHistogram)
+                searches += count;
+            return searches;
+        }
+
+        public double averageSearchDepth() {
+            long searches = 0;
+            long total = 0;
+            for (int depth = 0; depth < depthHistogram.length; depth++) {
+                searches += depthHistogram[depth];
+                total += depth * depthHistogram[depth];
+            }
+            return searches == 0 ? 0 : (double) total / searches;
+        }
+
+        @Override
+        public String toString() {
+            // histograma só até a maior profundidade usada
+            int last = depthHistogram.length;
+            while (last > 0 && depthHistogram[last - 1] == 0)
+                last--;
+            return String.format("buscas=%d, profundidade média=%.2f, comparações=%d, nodos visitados=%d, " +
+                            "rotações simples=%d, rotações duplas=%d, trocas pelo sucessor=%d, histograma=%s",
+                    searches(), averageSearchDepth(), comparisons, nodesVisited, singleRotations, doubleRotations,
+                    successorSwaps, Arrays.toString(Arrays.copyOf(depthHistogram, last)));
+        }
+    }
+}
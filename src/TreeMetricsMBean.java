@@ -0,0 +1,26 @@
+/**
+ * INTERFACE TreeMetricsMBean
+ * Visão JMX dos contadores de TreeMetrics (um MBean por tipo de árvore, ex.: TreeMetrics:type=AVLTree).
+ */
+public interface TreeMetricsMBean {
+    boolean isEnabled();
+
+    long getComparisons();
+
+    long getNodesVisited();
+
+    long getSearches();
+
+    double getAverageSearchDepth();
+
+    long getSingleRotations();
+
+    long getDoubleRotations();
+
+    long getSuccessorSwaps();
+
+    // posição i = buscas que visitaram i nodos; a última acumula as de DEPTH_BUCKETS - 1 ou mais
+    long[] getSearchDepthHistogram();
+
+    void reset();
+}
@@ -0,0 +1,207 @@
+// Imports
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * CLASSE TreeRenderer
+ * Desenha uma árvore binária de cima para baixo, no estilo do TreeFormatter (┌─┴─┐), em tempo linear.
+ *
+ * - Uma única passada em ordem (pilha explícita, sem recursão) define a coluna de cada nodo: cada rótulo
+ *   começa depois do anterior mais o espaçamento, então a subárvore esquerda fica sempre à esquerda do
+ *   pai e a direita à direita, sem precisar juntar e recuar as linhas das subárvores.
+ * - As linhas são escritas nível por nível direto no Appendable (Writer, PrintStream, StringBuilder...),
+ *   guardando só as colunas dos nodos visíveis.
+ * - maxDepth limita quantos níveis abaixo da raiz são desenhados; nodos com filhos escondidos ganham
+ *   um "…" embaixo. Para ver só um pedaço de uma árvore grande, passe a raiz da subárvore desejada.
+ */
+public class TreeRenderer<N> {
+    public static final int UNLIMITED = Integer.MAX_VALUE;
+    private static final int DEFAULT_PADDING = 2;
+
+    private final NodeAccessor<N> nodes;
+    // mínimo de espaços horizontais entre dois rótulos
+    private final int padding;
+
+    public TreeRenderer(NodeAccessor<N> nodes) {
+        this(nodes, DEFAULT_PADDING);
+    }
+
+    public TreeRenderer(NodeAccessor<N> nodes, int padding) {
+        this.nodes = nodes;
+        this.padding = padding;
+    }
+
+    /** Desenhar a árvore inteira em uma String (sem quebra de linha no final) */
+    public String toString(N root) {
+        return toString(root, UNLIMITED);
+    }
+
+    /** Desenhar até maxDepth níveis abaixo da raiz em uma String (sem quebra de linha no final) */
+    public String toString(N root, int maxDepth) {
+        StringBuilder out = new StringBuilder();
+        try {
+            render(root, maxDepth, out);
+        } catch (IOException e) {
+            // StringBuilder não lança IOException
+            throw new UncheckedIOException(e);
+        }
+        if (out.length() > 0)
+            out.setLength(out.length() - 1);
+        return out.toString();
+    }
+
+    /** Escrever a árvore inteira, uma linha por vez */
+    public void render(N root, Appendable out) throws IOException {
+        render(root, UNLIMITED, out);
+    }
+
+    /** Escrever até maxDepth níveis abaixo da raiz, uma linha por vez (cada linha termina em '\n') */
+    public void render(N root, int maxDepth, Appendable out) throws IOException {
+        ArrayList<Level<N>> levels = layout(root, maxDepth);
+
+        for (int depth = 0; depth < levels.size(); depth++) {
+            Level<N> level = levels.get(depth);
+            Level<N> below = depth + 1 < levels.size() ? levels.get(depth + 1) : null;
+
+            // linha dos rótulos
+            int column = 0;
+            for (int i = 0; i < level.count; i++) {
+                column = pad(out, column, level.x[i]);
+                String label = label(level.node(i));
+                out.append(label);
+                column += label.length();
+            }
+            out.append('\n');
+
+            // linha das ligações com os filhos (os filhos aparecem no nível de baixo na mesma ordem dos pais)
+            column = 0;
+            int child = 0;
+            boolean hidden = false;
+            for (int i = 0; i < level.count; i++) {
+                N node = level.node(i);
+                int center = center(node, level.x[i]);
+                int leftCenter = -1;
+                int rightCenter = -1;
+
+                if (below != null && nodes.left(node) != null) {
+                    leftCenter = center(below.node(child), below.x[child]);
+                    child++;
+                }
+                if (below != null && nodes.right(node) != null) {
+                    rightCenter = center(below.node(child), below.x[child]);
+                    child++;
+                }
+
+                if (leftCenter >= 0) {
+                    column = pad(out, column, leftCenter);
+                    out.append('┌');
+                    column = line(out, column + 1, center);
+                    out.append(rightCenter >= 0 ? '┴' : '┘');
+                    column++;
+                } else if (rightCenter >= 0) {
+                    column = pad(out, column, center);
+                    out.append('└');
+                    column++;
+                } else if (nodes.left(node) != null || nodes.right(node) != null) {
+                    // filhos além do maxDepth
+                    column = pad(out, column, center);
+                    out.append('…');
+                    column++;
+                    hidden = true;
+                }
+
+                if (rightCenter >= 0) {
+                    column = line(out, column, rightCenter);
+                    out.append('┐');
+                    column++;
+                }
+            }
+            if (below != null || hidden)
+                out.append('\n');
+        }
+    }
+
+    // Passada em ordem que define a coluna de cada nodo visível e separa os nodos por nível
+    @SuppressWarnings("unchecked")
+    private ArrayList<Level<N>> layout(N root, int maxDepth) {
+        ArrayList<Level<N>> levels = new ArrayList<>();
+        Object[] stack = new Object[16];
+        int[] depths = new int[16];
+        int top = -1;
+
+        N node = root;
+        int depth = 0;
+        int column = 0;
+        while (node != null || top >= 0) {
+            // desce pela esquerda empilhando o caminho
+            while (node != null) {
+                if (++top == stack.length) {
+                    stack = Arrays.copyOf(stack, top * 2);
+                    depths = Arrays.copyOf(depths, top * 2);
+                }
+                stack[top] = node;
+                depths[top] = depth;
+                node = depth < maxDepth ? nodes.left(node) : null;
+                depth++;
+            }
+
+            node = (N) stack[top];
+            depth = depths[top--];
+            // em ordem, os níveis de baixo podem aparecer antes dos de cima
+            while (depth >= levels.size())
+                levels.add(new Level<>());
+            levels.get(depth).add(node, column);
+            column += label(node).length() + padding;
+
+            node = depth < maxDepth ? nodes.right(node) : null;
+            depth++;
+        }
+        return levels;
+    }
+
+    private String label(N node) {
+        return String.valueOf(nodes.element(node));
+    }
+
+    // Coluna onde ficam as ligações do nodo (meio do rótulo)
+    private int center(N node, int x) {
+        return x + label(node).length() / 2;
+    }
+
+    // Escreve espaços até a coluna pedida
+    private static int pad(Appendable out, int column, int target) throws IOException {
+        for (; column < target; column++)
+            out.append(' ');
+        return column;
+    }
+
+    // Escreve traços horizontais até a coluna pedida
+    private static int line(Appendable out, int column, int target) throws IOException {
+        for (; column < target; column++)
+            out.append('─');
+        return column;
+    }
+
+    // Nodos de um nível, da esquerda para a direita, com a coluna de início de cada rótulo
+    private static class Level<N> {
+        Object[] nodes = new Object[4];
+        int[] x = new int[4];
+        int count;
+
+        void add(N node, int column) {
+            if (count == nodes.length) {
+                nodes = Arrays.copyOf(nodes, count * 2);
+                x = Arrays.copyOf(x, count * 2);
+            }
+            nodes[count] = node;
+            x[count++] = column;
+        }
+
+        @SuppressWarnings("unchecked")
+        N node(int i) {
+            return (N) nodes[i];
+        }
+    }
+}
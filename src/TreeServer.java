@@ -0,0 +1,267 @@
+// Imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * CLASSE TreeServer
+ * Servidor TCP local (só no loopback) que compartilha uma AVLTree entre vários processos.
+ *
+ * Protocolo binário com pipelining: cada pedido tem 5 bytes, a operação (ADD, REMOVE ou CONTAINS) e
+ * o valor (int big-endian); cada resposta é 1 byte (1 = true, 0 = false), na mesma ordem dos pedidos.
+ * O cliente pode mandar vários pedidos sem esperar as respostas (ver TreeClient). Uma operação
+ * desconhecida fecha a conexão.
+ *
+ * - cada conexão roda na sua thread: virtual no Java 21+, senão uma thread de plataforma (daemon)
+ * - só a thread "tree-applier" altera a árvore: as conexões entregam tudo o que leram de uma vez como
+ *   um lote, e o applier aplica todos os lotes que estiverem na fila numa única passada
+ * - depois de cada passada o applier publica um snapshot (O(1), ver AVLTree.snapshot), e os lotes só
+ *   com CONTAINS são respondidos direto nele pela própria conexão, sem passar pela fila; como a conexão
+ *   espera o seu lote de alterações terminar antes de ler o próximo, ela sempre vê as próprias alterações
+ *
+ * O close fecha também as conexões abertas, e os lotes que ainda estavam na fila são descartados sem
+ * resposta (a conexão é fechada), para nenhuma thread ficar esperando um applier que já terminou.
+ *
+ * Uso: java TreeServer [porta]   (padrão 7070)
+ */
+public class TreeServer implements Closeable {
+    public static final byte ADD = 1;
+    public static final byte REMOVE = 2;
+    public static final byte CONTAINS = 3;
+    public static final int REQUEST_SIZE = 5;
+    public static final int DEFAULT_PORT = 7070;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ServerSocketChannel server;
+    private final ExecutorService sessions = sessionExecutor();
+    private final Thread acceptor;
+    private final Thread applier;
+    private final BlockingQueue<Batch> queue = new LinkedBlockingQueue<>();
+    // conexões abertas, fechadas pelo close
+    private final Set<SocketChannel> connections = ConcurrentHashMap.newKeySet();
+
+    // só o applier usa a árvore; as conexões leem o último snapshot publicado
+    private final AVLTree tree = new AVLTree();
+    private volatile AVLTree published = tree.snapshot();
+    private volatile boolean closed;
+
+    /** Abrir o servidor na porta informada do loopback (0 = qualquer porta livre) */
+    public TreeServer(int port) throws IOException {
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+
+        applier = new Thread(this::applyBatches, "tree-applier");
+        applier.setDaemon(true);
+        applier.start();
+        acceptor = new Thread(this::acceptConnections, "tree-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /** Porta em que o servidor está escutando */
+    public int port() {
+        return server.socket().getLocalPort();
+    }
+
+    /** Quantidade de elementos na árvore (pelo último snapshot publicado) */
+    public int size() {
+        return published.size();
+    }
+
+    // Java 21+: uma virtual thread por conexão; no 17 não existe, então usa threads de plataforma
+    private static ExecutorService sessionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            ThreadFactory daemons = runnable -> {
+                Thread thread = new Thread(runnable, "tree-session");
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(daemons);
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            try {
+                SocketChannel channel = server.accept();
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                sessions.execute(() -> serve(channel));
+            } catch (ClosedChannelException e) {
+                return;
+            } catch (IOException e) {
+                if (!closed)
+                    System.err.println("TreeServer: erro ao aceitar conexão: " + e);
+            }
+        }
+    }
+
+    // Atende uma conexão: lê o que chegou, responde tudo de uma vez e volta a ler
+    private void serve(SocketChannel channel) {
+        ByteBuffer requests = ByteBuffer.allocate(BUFFER_SIZE);
+        ByteBuffer replies = ByteBuffer.allocate(BUFFER_SIZE / REQUEST_SIZE);
+        Batch batch = new Batch(requests, replies);
+        connections.add(channel);
+        try (channel) {
+            // o close pode ter passado pelas conexões antes desta entrar no conjunto
+            if (closed)
+                return;
+            while (channel.read(requests) >= 0) {
+                requests.flip();
+                if (!answer(batch)) {
+                    System.err.println("TreeServer: operação desconhecida, fechando a conexão");
+                    return;
+                }
+                // um pedido pode ter chegado pela metade; fica no começo do buffer para a próxima leitura
+                requests.compact();
+
+                replies.flip();
+                while (replies.hasRemaining())
+                    channel.write(replies);
+                replies.clear();
+            }
+        } catch (IOException e) {
+            // conexão fechada pelo cliente
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            connections.remove(channel);
+        }
+    }
+
+    // Responde os pedidos completos do buffer; false se houver uma operação desconhecida
+    private boolean answer(Batch batch) throws IOException, InterruptedException {
+        ByteBuffer requests = batch.requests;
+        int count = requests.remaining() / REQUEST_SIZE;
+        boolean mutations = false;
+        for (int i = 0; i < count; i++) {
+            byte op = requests.get(requests.position() + i * REQUEST_SIZE);
+            if (op == ADD || op == REMOVE)
+                mutations = true;
+            else if (op != CONTAINS)
+                return false;
+        }
+        batch.count = count;
+
+        if (mutations) {
+            // o applier consome os pedidos do buffer e preenche as respostas
+            queue.put(batch);
+            // se o close já drenou a fila, este lote não seria visto por ninguém
+            if (closed)
+                failPending();
+            batch.done.acquire();
+            if (batch.failed)
+                throw new ClosedChannelException();
+        } else {
+            AVLTree snapshot = published;
+            for (int i = 0; i < count; i++) {
+                requests.get();
+                batch.replies.put(snapshot.contains(requests.getInt()) ? (byte) 1 : 0);
+            }
+        }
+        return true;
+    }
+
+    // Thread que aplica os lotes: pega todos os que estão na fila e publica um snapshot no fim
+    private void applyBatches() {
+        List<Batch> batches = new ArrayList<>();
+        try {
+            while (true) {
+                batches.add(queue.take());
+                queue.drainTo(batches);
+                for (Batch batch : batches)
+                    apply(batch);
+
+                published = tree.snapshot();
+                for (Batch batch : batches)
+                    batch.done.release();
+                batches.clear();
+            }
+        } catch (InterruptedException e) {
+            // servidor fechado
+        }
+    }
+
+    private void apply(Batch batch) {
+        ByteBuffer requests = batch.requests;
+        ByteBuffer replies = batch.replies;
+        for (int i = 0; i < batch.count; i++) {
+            byte op = requests.get();
+            int value = requests.getInt();
+            boolean result = switch (op) {
+                case ADD -> tree.add(value);
+                case REMOVE -> tree.remove(value);
+                default -> tree.contains(value);
+            };
+            replies.put(result ? (byte) 1 : 0);
+        }
+    }
+
+    // Libera os lotes que ficaram na fila depois do fim do applier, marcando que não foram aplicados
+    private void failPending() {
+        Batch batch;
+        while ((batch = queue.poll()) != null) {
+            batch.failed = true;
+            batch.done.release();
+        }
+    }
+
+    /** Parar de aceitar conexões, encerrar o applier e fechar as conexões abertas */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        applier.interrupt();
+        // cada lote termina de um jeito só: aplicado pelo applier (que termina a passada atual) ou
+        // retirado da fila aqui; os que entrarem depois são retirados pela própria conexão
+        failPending();
+        for (SocketChannel channel : connections) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // a conexão já estava fechando
+            }
+        }
+        sessions.shutdown();
+    }
+
+    // Pedidos lidos por uma conexão e o espaço das respostas; reaproveitado enquanto a conexão existir
+    private static final class Batch {
+        final ByteBuffer requests;
+        final ByteBuffer replies;
+        final Semaphore done = new Semaphore(0);
+        int count;
+        // true se o servidor fechou antes de aplicar o lote (visível depois do done.acquire)
+        boolean failed;
+
+        Batch(ByteBuffer requests, ByteBuffer replies) {
+            this.requests = requests;
+            this.replies = replies;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        TreeServer server = new TreeServer(port);
+        System.out.println("TreeServer escutando em " + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.port());
+        server.acceptor.join();
+    }
+}
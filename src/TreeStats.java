@@ -0,0 +1,262 @@
+// Imports
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * CLASSE TreeStats
+ * Estatísticas de forma de uma árvore binária, calculadas juntas em uma única passada iterativa
+ * (pilha explícita, sem recursão) em vez de uma travessia por métrica.
+ *
+ * Em árvores grandes o cálculo pode ser dividido entre núcleos (ofParallel): cada subárvore com mais
+ * de PARALLEL_THRESHOLD nodos vira uma tarefa fork/join, e os resultados parciais são somados.
+ */
+public class TreeStats {
+    // subárvores até este tamanho são percorridas pela própria tarefa, sem dividir
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    // filhos menores que isto são percorridos na hora em vez de virarem tarefa
+    private static final int SPLIT_THRESHOLD = 1 << 10;
+
+    // maior profundidade (em arestas); -1 para árvore vazia
+    public final int height;
+    public final int nodeCount;
+    // nodos com pelo menos um filho
+    public final int internalNodes;
+    // folhas e a soma dos seus valores
+    public final int leaves;
+    public final long leafSum;
+    // menor e maior valor e o nível do menor nodo (0 para árvore vazia)
+    public final int min;
+    public final int max;
+    public final int minLevel;
+    // profundidade média dos nodos (comprimento médio do caminho da raiz até cada nodo)
+    public final double averagePathLength;
+    // histogram[d] = quantidade de nodos na profundidade d
+    private final int[] histogram;
+
+    private TreeStats(Accumulator acc, int minLevel) {
+        height = acc.height;
+        nodeCount = acc.nodes;
+        internalNodes = acc.nodes - acc.leaves;
+        leaves = acc.leaves;
+        leafSum = acc.leafSum;
+        min = acc.nodes == 0 ? 0 : acc.min;
+        max = acc.nodes == 0 ? 0 : acc.max;
+        this.minLevel = minLevel;
+        averagePathLength = acc.nodes == 0 ? 0 : (double) acc.depthSum / acc.nodes;
+        histogram = Arrays.copyOf(acc.histogram, height + 1);
+    }
+
+    /** Calcular as estatísticas da árvore com raiz em root, em uma passada */
+    public static <N> TreeStats of(N root, NodeAccessor<N> nodes) {
+        Accumulator acc = new Accumulator(0);
+        acc.walk(root, 0, nodes);
+        return new TreeStats(acc, leftmostDepth(root, nodes));
+    }
+
+    /** Calcular as estatísticas dividindo as subárvores grandes entre as threads do ForkJoinPool comum */
+    public static <N> TreeStats ofParallel(N root, NodeAccessor<N> nodes) {
+        return new TreeStats(ForkJoinPool.commonPool().invoke(new Task<>(root, 0, nodes)), leftmostDepth(root, nodes));
+    }
+
+    // O menor nodo é o da ponta esquerda: com valores repetidos e remoções, um igual ao mínimo pode
+    // ficar à direita dele, então o nível não sai da comparação de valores
+    private static <N> int leftmostDepth(N root, NodeAccessor<N> nodes) {
+        int depth = 0;
+        if (root != null)
+            for (N node = nodes.left(root); node != null; node = nodes.left(node))
+                depth++;
+        return depth;
+    }
+
+    /** Retornar quantos nodos estão na profundidade informada */
+    public int nodesAtDepth(int depth) {
+        return depth >= 0 && depth < histogram.length ? histogram[depth] : 0;
+    }
+
+    /** Retornar uma cópia do histograma de profundidades (índice = profundidade) */
+    public int[] depthHistogram() {
+        return histogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        return "TreeStats{height=" + height + ", nodes=" + nodeCount + ", internal=" + internalNodes
+                + ", leaves=" + leaves + ", leafSum=" + leafSum + ", min=" + min + ", max=" + max
+                + ", minLevel=" + minLevel + ", averagePathLength=" + averagePathLength
+                + ", depthHistogram=" + Arrays.toString(histogram) + "}";
+    }
+
+    /*
+     * Verificação rápida: java TreeStats [profundidade]
+     * Árvore com uma espinha degenerada (1, 0, 3, 2, 5, 4, ...) e, no fundo dela, uma subárvore aleatória
+     * grande o bastante para ser dividida: as tarefas fork/join começam bem abaixo do histograma inicial,
+     * e a passada paralela tem de bater com a sequencial.
+     */
+    public static void main(String[] args) {
+        int spine = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        BinarySearchTree tree = new BinarySearchTree();
+        for (int i = 0; i < 2 * spine; i += 2) {
+            tree.add(i + 1);
+            tree.add(i);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 2 * PARALLEL_THRESHOLD; i++)
+            tree.add(2 * spine + random.nextInt(1 << 24));
+
+        TreeStats sequential = tree.stats(false);
+        TreeStats parallel = tree.stats(true);
+        boolean same = sequential.height == parallel.height && sequential.nodeCount == parallel.nodeCount
+                && sequential.leafSum == parallel.leafSum && sequential.minLevel == parallel.minLevel
+                && sequential.minLevel == tree.minNodeLevel()
+                && sequential.averagePathLength == parallel.averagePathLength
+                && Arrays.equals(sequential.depthHistogram(), parallel.depthHistogram());
+        System.out.println("altura " + parallel.height + ", " + parallel.nodeCount + " nodos, nível do menor "
+                + parallel.minLevel + ": " + (same ? "ok" : "DIFERENTE"));
+        if (!same)
+            System.exit(1);
+    }
+
+    // Valores parciais de uma parte da árvore
+    private static class Accumulator {
+        int height = -1;
+        int nodes;
+        int leaves;
+        long leafSum;
+        long depthSum;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        // histogram[d - base] conta a profundidade d; base é a profundidade da raiz da parte, para que uma
+        // tarefa funda numa árvore degenerada não aloque um histograma do tamanho da profundidade
+        final int base;
+        int[] histogram = new int[16];
+
+        Accumulator(int base) {
+            this.base = base;
+        }
+
+        void visit(int element, int depth, boolean leaf) {
+            nodes++;
+            depthSum += depth;
+            if (leaf) {
+                leaves++;
+                leafSum += element;
+            }
+            int slot = depth - base;
+            if (depth > height) {
+                height = depth;
+                if (slot >= histogram.length)
+                    histogram = Arrays.copyOf(histogram, Math.max(slot + 1, histogram.length * 2));
+            }
+            histogram[slot]++;
+            if (element < min)
+                min = element;
+            if (element > max)
+                max = element;
+        }
+
+        // Pré-ordem com pilha explícita de nodos e profundidades
+        @SuppressWarnings("unchecked")
+        <N> void walk(N root, int rootDepth, NodeAccessor<N> accessor) {
+            if (root == null)
+                return;
+            Object[] stack = new Object[16];
+            int[] depths = new int[16];
+            int top = 0;
+            stack[0] = root;
+            depths[0] = rootDepth;
+
+            while (top >= 0) {
+                N node = (N) stack[top];
+                int depth = depths[top--];
+                N left = accessor.left(node);
+                N right = accessor.right(node);
+                visit(accessor.element(node), depth, left == null && right == null);
+
+                if (top + 2 >= stack.length) {
+                    stack = Arrays.copyOf(stack, stack.length * 2);
+                    depths = Arrays.copyOf(depths, depths.length * 2);
+                }
+                // empilha a direita antes para a esquerda sair primeiro
+                if (right != null) {
+                    stack[++top] = right;
+                    depths[top] = depth + 1;
+                }
+                if (left != null) {
+                    stack[++top] = left;
+                    depths[top] = depth + 1;
+                }
+            }
+        }
+
+        void merge(Accumulator other) {
+            if (other.nodes == 0)
+                return;
+            if (other.height > height) {
+                if (other.height - base >= histogram.length)
+                    histogram = Arrays.copyOf(histogram, other.height - base + 1);
+                height = other.height;
+            }
+            // as partes vêm de subárvores abaixo desta, então other.base >= base
+            int offset = other.base - base;
+            for (int slot = 0; slot <= other.height - other.base; slot++)
+                histogram[offset + slot] += other.histogram[slot];
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+            nodes += other.nodes;
+            leaves += other.leaves;
+            leafSum += other.leafSum;
+            depthSum += other.depthSum;
+        }
+    }
+
+    // Tarefa fork/join: segue pelo filho maior e cria uma tarefa para o menor enquanto a subárvore for grande.
+    // Como só o filho menor é dividido, a profundidade das tarefas fica em O(log n) mesmo numa árvore degenerada.
+    private static class Task<N> extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final N root;
+        private final int rootDepth;
+        private final NodeAccessor<N> accessor;
+
+        Task(N root, int rootDepth, NodeAccessor<N> accessor) {
+            this.root = root;
+            this.rootDepth = rootDepth;
+            this.accessor = accessor;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            Accumulator acc = new Accumulator(rootDepth);
+            ArrayList<Task<N>> forked = new ArrayList<>();
+            N node = root;
+            int depth = rootDepth;
+
+            while (accessor.size(node) > PARALLEL_THRESHOLD) {
+                N left = accessor.left(node);
+                N right = accessor.right(node);
+                acc.visit(accessor.element(node), depth, left == null && right == null);
+
+                boolean leftIsLarger = accessor.size(left) > accessor.size(right);
+                N smaller = leftIsLarger ? right : left;
+                if (accessor.size(smaller) < SPLIT_THRESHOLD) {
+                    // numa árvore degenerada o filho menor é quase sempre um nodo só: não vale uma tarefa
+                    acc.walk(smaller, depth + 1, accessor);
+                } else {
+                    Task<N> task = new Task<>(smaller, depth + 1, accessor);
+                    task.fork();
+                    forked.add(task);
+                }
+                node = leftIsLarger ? left : right;
+                depth++;
+            }
+            acc.walk(node, depth, accessor);
+
+            for (Task<N> task : forked)
+                acc.merge(task.join());
+            return acc;
+        }
+    }
+}